@@ -0,0 +1,43 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Exhaustive enumeration is exponential, so it only runs on the real export with fixed pairs.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AllPathsBenchmark {
+    @Param({"Uttarkashi|Lohaghat", "Patal Bhubaneswar Cave Temple|Tungnath Temple", "Gauchar|Almora"})
+    public String pair;
+
+    private RouteGraph graph;
+    private int source;
+    private int target;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        BenchmarkData data = new BenchmarkData();
+        data.dataset = "real";
+        data.load();
+        graph = data.planner.graph();
+        Map<String, TouristSpot> spots = data.spots;
+        String[] names = pair.split("\\|");
+        source = graph.idOf(spots.get(names[0]));
+        target = graph.idOf(spots.get(names[1]));
+    }
+
+    @Benchmark
+    public long enumerateEveryPath() {
+        LongAdder hops = new LongAdder();
+        ParallelPathEnumerator enumerator = new ParallelPathEnumerator(graph, source, target);
+        enumerator.enumerate(1, TimeUnit.MINUTES, (path, length) -> hops.add(length));
+        return hops.sum();
+    }
+}
@@ -0,0 +1,65 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.List;
+
+// Shared dataset: the real loc.csv/con2.csv export or a synthetic planar graph of the given size.
+@State(Scope.Benchmark)
+public class BenchmarkData {
+    static final int QUERY_COUNT = 256;
+
+    @Param({"real", "1000", "10000", "100000", "1000000"})
+    public String dataset;
+
+    Map<String, TouristSpot> spots;
+    List<TouristConnection> connections;
+    RoutePlanner planner;
+    TouristSpot[] starts;
+    TouristSpot[] ends;
+    List<List<TouristSpot>> routes;
+
+    @Setup(Level.Trial)
+    public void load() throws Exception {
+        TravelDataSource source;
+        if (dataset.equals("real")) {
+            // Run from the repository root, or point travel.data.dir at the directory holding the CSVs
+            Path dataDir = Paths.get(System.getProperty("travel.data.dir", "."));
+            source = new CsvDataSource(dataDir.resolve("loc.csv"), dataDir.resolve("con2.csv"));
+        } else {
+            source = new SyntheticDataSource(Integer.parseInt(dataset), 42);
+        }
+        TravelData data = source.load();
+        spots = data.getSpots();
+        connections = data.getConnections();
+        planner = new RoutePlanner(spots.values(), connections);
+
+        // Only pairs that are actually connected, so every query does the same kind of work
+        RouteGraph graph = planner.graph();
+        Random random = new Random(7);
+        starts = new TouristSpot[QUERY_COUNT];
+        ends = new TouristSpot[QUERY_COUNT];
+        routes = new ArrayList<>(QUERY_COUNT);
+        for (int found = 0, attempts = 0; found < QUERY_COUNT && attempts < QUERY_COUNT * 20; attempts++) {
+            TouristSpot start = graph.spot(random.nextInt(graph.spotCount()));
+            TouristSpot end = graph.spot(random.nextInt(graph.spotCount()));
+            List<TouristSpot> route = planner.findBestPath(start, end);
+            if (route.size() > 1) {
+                starts[found] = start;
+                ends[found] = end;
+                routes.add(route);
+                found++;
+            }
+        }
+        if (routes.isEmpty()) {
+            throw new IllegalStateException("No connected spot pairs in dataset " + dataset);
+        }
+    }
+
+    int queries() {
+        return routes.size();
+    }
+}
@@ -0,0 +1,88 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Contraction hierarchy preprocessing time, and best-path queries through it against plain Dijkstra on the same
+// graph. Kept apart from BenchmarkData because preprocessing the 1M-spot graph takes far too long per trial.
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class ContractionHierarchyBenchmark {
+    @Param({"real", "10000", "100000"})
+    public String dataset;
+
+    private RouteGraph graph;
+    private ShortestPathEngine engine;
+    private ContractionHierarchy hierarchy;
+    private TouristSpot[] starts;
+    private TouristSpot[] ends;
+    private int queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void preprocess() throws Exception {
+        TravelDataSource source;
+        if (dataset.equals("real")) {
+            Path dataDir = Paths.get(System.getProperty("travel.data.dir", "."));
+            source = new CsvDataSource(dataDir.resolve("loc.csv"), dataDir.resolve("con2.csv"));
+        } else {
+            source = new SyntheticDataSource(Integer.parseInt(dataset), 42);
+        }
+        graph = source.load().routeGraph();
+        engine = new ShortestPathEngine(graph);
+        hierarchy = ContractionHierarchy.build(graph);
+
+        // Only pairs that are actually connected, as in BenchmarkData
+        Random random = new Random(7);
+        starts = new TouristSpot[BenchmarkData.QUERY_COUNT];
+        ends = new TouristSpot[BenchmarkData.QUERY_COUNT];
+        for (int attempts = 0; queries < starts.length && attempts < starts.length * 20; attempts++) {
+            TouristSpot start = graph.spot(random.nextInt(graph.spotCount()));
+            TouristSpot end = graph.spot(random.nextInt(graph.spotCount()));
+            if (hierarchy.route(start, end).size() > 1) {
+                starts[queries] = start;
+                ends[queries] = end;
+                queries++;
+            }
+        }
+        if (queries == 0) {
+            throw new IllegalStateException("No connected spot pairs in dataset " + dataset);
+        }
+    }
+
+    private int nextQuery() {
+        next = next + 1 == queries ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ContractionHierarchy preprocessing() {
+        return ContractionHierarchy.build(graph);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<TouristSpot> bestPathHierarchy() {
+        int q = nextQuery();
+        return hierarchy.route(starts[q], ends[q]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<TouristSpot> bestPathDijkstra() {
+        int q = nextQuery();
+        return engine.dijkstra(starts[q], ends[q]);
+    }
+}
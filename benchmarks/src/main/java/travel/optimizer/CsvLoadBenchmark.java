@@ -0,0 +1,67 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Startup loading from CSV exports written from a synthetic graph (~2.3 connections per spot).
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class CsvLoadBenchmark {
+    @Param({"1000", "100000", "435000"})
+    public int spotCount;
+
+    private Path directory;
+    private CsvDataSource source;
+
+    @Setup(Level.Trial)
+    public void writeExports() throws Exception {
+        SyntheticDataSource synthetic = new SyntheticDataSource(spotCount, 42);
+        Map<String, TouristSpot> spots = synthetic.loadSpots();
+        List<TouristConnection> connections = synthetic.loadConnections(spots);
+
+        directory = Files.createTempDirectory("csv-load");
+        Path spotsFile = directory.resolve("loc.csv");
+        Path connectionsFile = directory.resolve("con.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(spotsFile, StandardCharsets.UTF_8)) {
+            writer.write("Name,Latitude,Longitude\n");
+            for (TouristSpot spot : spots.values()) {
+                writer.write(String.format(Locale.ROOT, "%s,%f,%f\n", spot.getName(), spot.getLatitude(), spot.getLongitude()));
+            }
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(connectionsFile, StandardCharsets.UTF_8)) {
+            writer.write("Source,Target,Distance\n");
+            for (TouristConnection conn : connections) {
+                writer.write(String.format(Locale.ROOT, "%s,%s,%f\n",
+                        conn.getStart().getName(), conn.getEnd().getName(), conn.getDistance()));
+            }
+        }
+        source = new CsvDataSource(spotsFile, connectionsFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteExports() throws Exception {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public TravelData load() throws Exception {
+        return source.load();
+    }
+}
@@ -0,0 +1,23 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class GraphConstructionBenchmark {
+
+    @Benchmark
+    public RouteGraph buildRouteGraph(BenchmarkData data) {
+        return RouteGraph.build(data.spots.values(), data.connections);
+    }
+
+    @Benchmark
+    public ShortestPathEngine buildShortestPathEngine(BenchmarkData data) {
+        return new ShortestPathEngine(data.planner.graph());
+    }
+}
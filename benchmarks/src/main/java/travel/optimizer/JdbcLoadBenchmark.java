@@ -0,0 +1,114 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Database ingestion against an in-memory H2 copy of the TouristSpots/Connections schema filled with a
+// synthetic graph. Besides time per load, the rowsPer100k counter reports milliseconds per 100k rows read.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class JdbcLoadBenchmark {
+    @Param({"10000", "100000"})
+    public int spotCount;
+
+    private String url;
+    private Connection keepAlive;
+    private Path exportDirectory;
+    private DatabaseDataSource source;
+    private DatabaseDataSource exportingSource;
+    private int rows;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Rows {
+        public double rowsPer100k;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rowsPer100k = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws Exception {
+        url = "jdbc:h2:mem:travel" + spotCount;
+        keepAlive = DriverManager.getConnection(url, "sa", "");
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("CREATE TABLE TouristSpots (id INT PRIMARY KEY, name VARCHAR(100), latitude DOUBLE, longitude DOUBLE)");
+            stmt.execute("CREATE TABLE Connections (source_id INT, target_id INT, distance DOUBLE)");
+        }
+
+        SyntheticDataSource synthetic = new SyntheticDataSource(spotCount, 42);
+        Map<String, TouristSpot> spots = synthetic.loadSpots();
+        List<TouristConnection> connections = synthetic.loadConnections(spots);
+        Map<TouristSpot, Integer> ids = new HashMap<>();
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO TouristSpots VALUES (?, ?, ?, ?)")) {
+            for (TouristSpot spot : spots.values()) {
+                int id = ids.size() + 1;
+                ids.put(spot, id);
+                insert.setInt(1, id);
+                insert.setString(2, spot.getName());
+                insert.setDouble(3, spot.getLatitude());
+                insert.setDouble(4, spot.getLongitude());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO Connections VALUES (?, ?, ?)")) {
+            for (TouristConnection conn : connections) {
+                insert.setInt(1, ids.get(conn.getStart()));
+                insert.setInt(2, ids.get(conn.getEnd()));
+                insert.setDouble(3, conn.getDistance());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        rows = spots.size() + connections.size();
+
+        exportDirectory = Files.createTempDirectory("jdbc-export");
+        source = new DatabaseDataSource(url, "sa", "", null);
+        exportingSource = new DatabaseDataSource(url, "sa", "", exportDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void dropDatabase() throws Exception {
+        keepAlive.close();
+        try (var files = Files.list(exportDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(exportDirectory);
+    }
+
+    // Without the CSV export, which would otherwise overlap the next invocation
+    @Benchmark
+    public TravelData load(Rows counter) throws Exception {
+        TravelData data = source.load();
+        counter.rowsPer100k += rows / 100_000.0;
+        return data;
+    }
+
+    // Includes waiting for the background export, i.e. the total work the load triggers
+    @Benchmark
+    public TravelData loadAndExport(Rows counter) throws Exception {
+        TravelData data = exportingSource.load();
+        exportingSource.exportCompletion().join();
+        counter.rowsPer100k += rows / 100_000.0;
+        return data;
+    }
+}
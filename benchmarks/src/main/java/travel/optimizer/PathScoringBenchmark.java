@@ -0,0 +1,21 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Thread)
+public class PathScoringBenchmark {
+    private int next;
+
+    @Benchmark
+    public double calculateTotalDistance(BenchmarkData data) {
+        next = next + 1 == data.queries() ? 0 : next + 1;
+        return data.planner.calculateTotalDistance(data.routes.get(next));
+    }
+}
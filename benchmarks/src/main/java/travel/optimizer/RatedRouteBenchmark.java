@@ -0,0 +1,60 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Rating-aware routing: Pareto route sets over (distance, stops, average rating) on the BenchmarkData queries,
+// with two thirds of the spots rated, and the cost of appending one rating to the store.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Thread)
+public class RatedRouteBenchmark {
+    private Path file;
+    private RatingStore ratings;
+    private Random random;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void rate(BenchmarkData data) throws Exception {
+        file = Files.createTempFile("ratings", ".csv");
+        Files.delete(file);
+        ratings = RatingStore.open(file);
+        random = new Random(11);
+        Map<String, Integer> initial = new HashMap<>();
+        for (String spot : data.spots.keySet()) {
+            if (random.nextInt(3) > 0) {
+                initial.put(spot, RatingStore.MIN_RATING + random.nextInt(RatingStore.MAX_RATING));
+            }
+        }
+        ratings.add(initial);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRatings() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public ParetoRouter.Frontier paretoRoutes(BenchmarkData data) {
+        next = next + 1 == data.queries() ? 0 : next + 1;
+        return data.planner.paretoRoutes(data.starts[next], data.ends[next], ratings);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public RatingStore.Aggregate addRating(BenchmarkData data) throws Exception {
+        next = next + 1 == data.queries() ? 0 : next + 1;
+        String spot = data.starts[next].getName();
+        ratings.add(Map.of(spot, RatingStore.MIN_RATING + random.nextInt(RatingStore.MAX_RATING)));
+        return ratings.aggregate(spot);
+    }
+}
@@ -0,0 +1,36 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Reachability queries from the BenchmarkData starts: latency of one query, and queries per second with a
+// thread per core, which is how BatchRouter runs a file of them.
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Thread)
+public class ReachabilityBenchmark {
+    @Param({"50", "150"})
+    public double budget;
+
+    private int next;
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Reachability.Reach> reachable(BenchmarkData data) {
+        next = next + 1 == data.queries() ? 0 : next + 1;
+        return data.planner.reachable(List.of(data.starts[next]), budget);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(Threads.MAX)
+    public List<Reachability.Reach> reachableParallel(BenchmarkData data) {
+        next = next + 1 == data.queries() ? 0 : next + 1;
+        return data.planner.reachable(List.of(data.starts[next]), budget);
+    }
+}
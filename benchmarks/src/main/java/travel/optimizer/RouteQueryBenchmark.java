@@ -0,0 +1,39 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Thread)
+public class RouteQueryBenchmark {
+    private int next;
+
+    private int nextQuery(BenchmarkData data) {
+        next = next + 1 == data.queries() ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public List<TouristSpot> bestPathDijkstra(BenchmarkData data) {
+        int q = nextQuery(data);
+        return data.planner.engine().dijkstra(data.starts[q], data.ends[q]);
+    }
+
+    @Benchmark
+    public List<TouristSpot> bestPathAStar(BenchmarkData data) {
+        int q = nextQuery(data);
+        return data.planner.engine().aStar(data.starts[q], data.ends[q]);
+    }
+
+    @Benchmark
+    public List<List<TouristSpot>> tenShortestPaths(BenchmarkData data) {
+        int q = nextQuery(data);
+        return data.planner.shortestPaths(data.starts[q], data.ends[q]).nextPage(10);
+    }
+}
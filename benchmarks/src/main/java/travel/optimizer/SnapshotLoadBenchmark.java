@@ -0,0 +1,44 @@
+package travel.optimizer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Time to a usable RouteGraph at startup: reading a graph snapshot versus loading the data and building the graph.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class SnapshotLoadBenchmark {
+    @Param({"1000", "100000", "435000"})
+    public int spotCount;
+
+    private SyntheticDataSource source;
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void writeSnapshot() throws Exception {
+        source = new SyntheticDataSource(spotCount, 42);
+        snapshot = Files.createTempFile("graph", ".snapshot");
+        GraphSnapshot.write(source.load().routeGraph(), 0, snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshot() throws Exception {
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public RouteGraph readSnapshot() throws Exception {
+        return GraphSnapshot.read(snapshot).graph();
+    }
+
+    @Benchmark
+    public RouteGraph loadAndBuild() throws Exception {
+        return source.load().routeGraph();
+    }
+}
@@ -0,0 +1,78 @@
+package travel.optimizer;
+
+import java.util.*;
+import java.util.List;
+
+// Generates a planar road-like graph across Uttarakhand's bounding box: a jittered grid with
+// right/down links plus some down-right diagonals, distances 1.1-1.5x the straight line.
+public class SyntheticDataSource implements TravelDataSource {
+    private static final double MIN_LAT = 28.7, MAX_LAT = 31.45;
+    private static final double MIN_LON = 77.55, MAX_LON = 81.05;
+
+    private final int spotCount;
+    private final long seed;
+    private final int columns;
+    private List<TouristSpot> grid;
+
+    public SyntheticDataSource(int spotCount, long seed) {
+        this.spotCount = spotCount;
+        this.seed = seed;
+        double aspect = (MAX_LON - MIN_LON) / (MAX_LAT - MIN_LAT);
+        this.columns = Math.max(1, (int) Math.ceil(Math.sqrt(spotCount * aspect)));
+    }
+
+    @Override
+    public Map<String, TouristSpot> loadSpots() {
+        Random random = new Random(seed);
+        int rows = (spotCount + columns - 1) / columns;
+        double latStep = (MAX_LAT - MIN_LAT) / rows;
+        double lonStep = (MAX_LON - MIN_LON) / columns;
+
+        grid = new ArrayList<>(spotCount);
+        Map<String, TouristSpot> spots = new LinkedHashMap<>(spotCount * 2);
+        for (int i = 0; i < spotCount; i++) {
+            int row = i / columns;
+            int column = i % columns;
+            // Jitter stays inside the cell so grid links never cross
+            double latitude = MAX_LAT - (row + 0.5 + (random.nextDouble() - 0.5) * 0.6) * latStep;
+            double longitude = MIN_LON + (column + 0.5 + (random.nextDouble() - 0.5) * 0.6) * lonStep;
+            TouristSpot spot = new TouristSpot("Spot " + i, latitude, longitude);
+            grid.add(spot);
+            spots.put(spot.getName(), spot);
+        }
+        return spots;
+    }
+
+    @Override
+    public List<TouristConnection> loadConnections(Map<String, TouristSpot> spots) {
+        if (grid == null) {
+            loadSpots();
+        }
+        Random random = new Random(seed * 31 + 7);
+        List<TouristConnection> connections = new ArrayList<>(spotCount * 2 + spotCount / 3);
+        for (int i = 0; i < spotCount; i++) {
+            int column = i % columns;
+            boolean hasRight = column + 1 < columns && i + 1 < spotCount;
+            boolean hasDown = i + columns < spotCount;
+            if (hasRight) {
+                connections.add(road(i, i + 1, random));
+            }
+            if (hasDown) {
+                connections.add(road(i, i + columns, random));
+            }
+            if (hasRight && i + columns + 1 < spotCount && random.nextDouble() < 0.3) {
+                connections.add(road(i, i + columns + 1, random));
+            }
+        }
+        return connections;
+    }
+
+    private TouristConnection road(int a, int b, Random random) {
+        TouristSpot start = grid.get(a);
+        TouristSpot end = grid.get(b);
+        double straightLine = ShortestPathEngine.haversine(
+                start.getLatitude(), start.getLongitude(), end.getLatitude(), end.getLongitude());
+        double winding = 1.1 + random.nextDouble() * 0.4;
+        return new TouristConnection(start, end, Math.round(straightLine * winding * 100) / 100.0);
+    }
+}
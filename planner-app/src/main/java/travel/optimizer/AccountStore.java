@@ -0,0 +1,192 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Username -> password index over accounts.txt, which is kept as an append-only log of "username,password" rows.
+// The file is read once; a login is one ConcurrentHashMap lookup and a sign-up appends one row.
+//
+// Several planners can share the file, so writers take an exclusive lock on a sidecar file and first read
+// whatever other processes appended since this store last looked. A login that misses does the same catch-up
+// without locking, since appends are whole lines. Rows that no longer count (repeated usernames, the
+// "null,null" rows cancelled sign-ups used to write, malformed lines) are compacted away by the next writer.
+final class AccountStore {
+    private static final String CANCELLED = "null";
+    // File locks are held per process, so stores in the same JVM also serialize on a monitor per lock file
+    private static final Map<Path, Object> writerMonitors = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final Path lockFile;
+    private final Map<String, String> passwords = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private Object fileKey;
+    private long readOffset;
+    private int staleRows;
+
+    private AccountStore(Path file) {
+        this.file = file;
+        this.lockFile = file.toAbsolutePath().resolveSibling(file.getFileName() + ".lock");
+    }
+
+    public static AccountStore open(Path file) throws IOException {
+        AccountStore store = new AccountStore(file);
+        store.underWriteLock(() -> {
+            store.catchUp();
+            store.compactIfStale();
+            return null;
+        });
+        return store;
+    }
+
+    // Usernames and passwords are stored as they are, one row each, so they cannot be empty or contain the
+    // separators
+    public static boolean isValid(String value) {
+        return value != null && !value.isEmpty() && value.indexOf(',') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0;
+    }
+
+    public int size() {
+        return passwords.size();
+    }
+
+    public boolean verify(String username, String password) {
+        if (username == null || password == null) {
+            return false;
+        }
+        String stored = passwords.get(username);
+        if (stored == null) {
+            // Possibly signed up from another planner since this one loaded the file
+            try {
+                synchronized (this) {
+                    catchUp();
+                }
+            } catch (IOException e) {
+                return false;
+            }
+            stored = passwords.get(username);
+        }
+        return stored != null && MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns false if the username is taken; throws IllegalArgumentException unless both values are isValid
+    public boolean register(String username, String password) throws IOException {
+        if (!isValid(username) || !isValid(password) || (CANCELLED.equals(username) && CANCELLED.equals(password))) {
+            throw new IllegalArgumentException("Invalid username or password");
+        }
+        return underWriteLock(() -> {
+            catchUp();
+            if (passwords.containsKey(username)) {
+                return false;
+            }
+            compactIfStale();
+            // A row torn by a crashed writer is left unterminated; start on a fresh line rather than joining it.
+            // On a fresh install there is no file yet, and the append below creates it
+            boolean torn = Files.exists(file) && Files.size(file) > readOffset;
+            String row = (torn ? "\n" : "") + username + "," + password + "\n";
+            Files.write(file, row.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            catchUp();
+            return true;
+        });
+    }
+
+    private interface Write<T> {
+        T run() throws IOException;
+    }
+
+    private <T> T underWriteLock(Write<T> write) throws IOException {
+        synchronized (writerMonitors.computeIfAbsent(lockFile, path -> new Object())) {
+            synchronized (this) {
+                try (FileChannel lock = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     FileLock ignored = lock.lock()) {
+                    return write.run();
+                }
+            }
+        }
+    }
+
+    // Reads the rows appended since the last call, up to the last complete line. Starts over if the file
+    // was replaced, e.g. compacted by another process
+    private void catchUp() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Accounts already loaded come back from a replaced file, so only repeats within it are stale
+            Set<String> reloaded = null;
+            if ((key != null && !key.equals(fileKey)) || size < readOffset) {
+                reloaded = new HashSet<>();
+                readOffset = 0;
+                staleRows = 0;
+            }
+            fileKey = key;
+            if (size == readOffset) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size - readOffset));
+            while (buffer.hasRemaining() && channel.read(buffer, readOffset + buffer.position()) >= 0) {
+                // Read until full or end of file
+            }
+            byte[] bytes = buffer.array();
+            int end = buffer.position();
+            while (end > 0 && bytes[end - 1] != '\n') {
+                end--;
+            }
+            int lineStart = 0;
+            for (int i = 0; i < end; i++) {
+                if (bytes[i] == '\n') {
+                    addRow(new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8), reloaded);
+                    lineStart = i + 1;
+                }
+            }
+            readOffset += end;
+        }
+    }
+
+    // The first row for a username wins, as sign-ups never overwrite an account
+    private void addRow(String line, Set<String> reloaded) {
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+        int comma = line.indexOf(',');
+        String username = comma < 0 ? null : line.substring(0, comma);
+        String password = comma < 0 ? null : line.substring(comma + 1);
+        boolean cancelled = CANCELLED.equals(username) && CANCELLED.equals(password);
+        if (!isValid(username) || !isValid(password) || cancelled) {
+            staleRows++;
+            return;
+        }
+        boolean known = passwords.putIfAbsent(username, password) != null;
+        if (reloaded != null ? !reloaded.add(username) : known) {
+            staleRows++;
+        }
+    }
+
+    // Rewrites the log with one row per account, then swaps it in atomically; the caller holds the file lock
+    private void compactIfStale() throws IOException {
+        if (staleRows == 0) {
+            return;
+        }
+        StringBuilder rows = new StringBuilder();
+        passwords.forEach((username, password) -> rows.append(username).append(',').append(password).append('\n'));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, rows.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        readOffset = Files.size(file);
+        staleRows = 0;
+    }
+}
@@ -0,0 +1,26 @@
+package travel.optimizer;
+
+import jdk.jfr.*;
+
+// One map frame painted on the EDT, or one layer rendered in the background. Only frames slow enough to be
+// noticed are kept by default.
+@Name("travel.optimizer.MapRender")
+@Label("Map Render")
+@Category("Travel Optimizer")
+@Threshold("10 ms")
+@StackTrace(false)
+class MapRenderEvent extends Event {
+    @Label("Layer")
+    @Description("True for a background layer render, false for a frame")
+    boolean layer;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Spots Drawn")
+    @Description("Spots in the rendered layer's window; 0 for frames")
+    int spots;
+}
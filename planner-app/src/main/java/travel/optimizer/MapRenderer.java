@@ -0,0 +1,475 @@
+package travel.optimizer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
+
+// Draws the map in two layers: the static connections and spots are rendered off the EDT into an image
+// covering the viewport plus a margin, which pan only translates (and zoom scales until a sharp re-render
+// arrives); the highlighted route is drawn live on top. A reachable region is shaded the same way as the
+// static layer, in an image of its own. Spots and connections are looked up through R-trees, so a layer only
+// touches what it shows, and the same spot index answers map clicks.
+//
+// Map space is the projected position before panning: x = (lon - minLon) / lonSpan * width * zoom.
+class MapRenderer {
+    private static final Color EDGE_COLOR = Color.LIGHT_GRAY;
+    private static final Color SPOT_COLOR = Color.RED;
+    private static final Color ROUTE_COLOR = Color.BLUE;
+    private static final Stroke ROUTE_STROKE = new BasicStroke(3);
+    private static final Color REACHABLE_COLOR = new Color(0, 150, 70);
+    private static final Composite REACHABLE_COMPOSITE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.35f);
+    private static final int REACHABLE_RADIUS = 12;
+    private static final Stroke REACHABLE_STROKE = new BasicStroke(REACHABLE_RADIUS * 2, BasicStroke.CAP_ROUND,
+            BasicStroke.JOIN_ROUND);
+    private static final int SPOT_RADIUS = 5;
+    private static final int LABEL_WIDTH = 200;
+    private static final int LABEL_HEIGHT = 15;
+    // Labels are drawn while few enough spots are in view to stay readable; zoomed in, spots are further
+    // apart on screen, so more of them can carry one
+    private static final double LABEL_ZOOM = 3.0;
+    private static final int MAX_LABELS = 500;
+    private static final int MAX_LABELS_ZOOMED_IN = 5_000;
+    private static final int PICK_RADIUS = 15;
+    // Beyond this many spots in view they are drawn as plain dots
+    private static final int MAX_MARKERS = 20_000;
+
+    private final Runnable repaint;
+    private final ExecutorService renderer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "map-render");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Confined to the EDT
+    private RouteGraph graph;
+    private double minLat, maxLat, minLon, maxLon;
+    private int generation;
+    private Layer layer;
+    private boolean rendering;
+    private Overlay overlay;
+    private boolean renderingOverlay;
+
+    // Confined to the render thread
+    private Projection projection;
+
+    // Built on the render thread and published for picking, which uses whichever index is ready
+    private volatile GraphIndex index;
+
+    MapRenderer(RouteGraph graph, Runnable repaint) {
+        this.graph = graph;
+        this.repaint = repaint;
+        renderer.execute(() -> indexFor(graph));
+    }
+
+    void setGraph(RouteGraph graph) {
+        this.graph = graph;
+        generation++;
+        renderer.execute(() -> indexFor(graph));
+    }
+
+    // Keeps the current layer unless the change is drawn inside it; the new graph's index is built off the EDT
+    void applyChange(GraphChange change) {
+        graph = change.graph();
+        RouteGraph updated = graph;
+        renderer.execute(() -> indexFor(updated));
+        generation++;
+        if (layer == null || layer.generation() != generation - 1) {
+            return;
+        }
+        View view = layer.view;
+        double xScale = view.width * view.zoom / (view.maxLon - view.minLon);
+        double yScale = view.height * view.zoom / (view.maxLat - view.minLat);
+        double[] extent = change.extent();
+        // Spot markers and labels reach past the spot itself
+        double west = view.minLon + (layer.originX - SPOT_RADIUS) / xScale;
+        double east = view.minLon + (layer.originX + layer.image.getWidth() + LABEL_WIDTH + SPOT_RADIUS) / xScale;
+        double north = view.maxLat - (layer.originY - LABEL_HEIGHT - SPOT_RADIUS) / yScale;
+        double south = view.maxLat - (layer.originY + layer.image.getHeight() + SPOT_RADIUS) / yScale;
+        boolean visible = extent[3] >= west && extent[2] <= east && extent[1] >= south && extent[0] <= north;
+        if (!visible) {
+            layer = new Layer(new View(graph, generation, view.minLat, view.maxLat, view.minLon, view.maxLon,
+                    view.width, view.height, view.zoom), layer.image, layer.originX, layer.originY);
+        }
+    }
+
+    void setBounds(double minLat, double maxLat, double minLon, double maxLon) {
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLon = minLon;
+        this.maxLon = maxLon;
+        generation++;
+    }
+
+    // Spot within PICK_RADIUS pixels of a point on the component, or null. Never waits for an index: until the
+    // first one is ready nothing is picked, and one built for an earlier version only offers spots still on the map
+    TouristSpot pick(int x, int y, int width, int height, double zoom, int panX, int panY) {
+        double xScale = width * zoom / (maxLon - minLon);
+        double yScale = height * zoom / (maxLat - minLat);
+        double longitude = minLon + (x - panX) / xScale;
+        double latitude = maxLat - (y - panY) / yScale;
+        GraphIndex ready = index;
+        if (ready == null) {
+            return null;
+        }
+        int id = ready.spots.nearest(longitude, latitude, xScale, yScale, PICK_RADIUS);
+        int current = id < 0 ? -1 : graph.idOf(ready.graph.spot(id));
+        return current < 0 ? null : graph.spot(current);
+    }
+
+    // Render thread only
+    private GraphIndex indexFor(RouteGraph graph) {
+        if (index == null || index.graph != graph) {
+            index = new GraphIndex(graph);
+        }
+        return index;
+    }
+
+    double mapX(double longitude, int width, double zoom) {
+        return (longitude - minLon) / (maxLon - minLon) * width * zoom;
+    }
+
+    double mapY(double latitude, int height, double zoom) {
+        return (maxLat - latitude) / (maxLat - minLat) * height * zoom;
+    }
+
+    void paint(Graphics2D g, int width, int height, double zoom, int panX, int panY, List<TouristSpot> route,
+               List<TouristSpot> reachable) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        MapRenderEvent event = new MapRenderEvent();
+        event.begin();
+        long started = System.nanoTime();
+        if (needsRender(width, height, zoom, panX, panY) && !rendering) {
+            requestRender(width, height, zoom, panX, panY);
+        }
+        if (layer != null && layer.generation() == generation) {
+            drawImage(g, layer.image, layer.originX, layer.originY, zoom / layer.view.zoom, panX, panY);
+        }
+        paintReachable(g, width, height, zoom, panX, panY, reachable);
+        paintRoute(g, width, height, zoom, panX, panY, route);
+        RoutingMetrics.INSTANCE.record(RoutingMetrics.Operation.RENDER_FRAME, started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.width = width;
+            event.height = height;
+            event.commit();
+        }
+    }
+
+    // Shades the reachable spots and the connections between them
+    private void paintReachable(Graphics2D g, int width, int height, double zoom, int panX, int panY,
+                                List<TouristSpot> reachable) {
+        if (reachable.isEmpty()) {
+            return;
+        }
+        boolean current = overlay != null && overlay.region == reachable && overlay.view.generation == generation;
+        boolean covered = current && overlay.view.zoom == zoom && overlay.view.width == width
+                && overlay.view.height == height
+                && covers(overlay.image, overlay.originX, overlay.originY, width, height, panX, panY);
+        if (!covered && !renderingOverlay) {
+            requestOverlay(reachable, width, height, zoom, panX, panY);
+        }
+        if (current) {
+            Composite previous = g.getComposite();
+            g.setComposite(REACHABLE_COMPOSITE);
+            drawImage(g, overlay.image, overlay.originX, overlay.originY, zoom / overlay.view.zoom, panX, panY);
+            g.setComposite(previous);
+        }
+    }
+
+    private void requestOverlay(List<TouristSpot> reachable, int width, int height, double zoom, int panX, int panY) {
+        renderingOverlay = true;
+        View view = new View(graph, generation, minLat, maxLat, minLon, maxLon, width, height, zoom);
+        int originX = -panX - width / 2;
+        int originY = -panY - height / 2;
+        renderer.execute(() -> {
+            Overlay rendered = renderReachable(view, reachable, originX, originY, width * 2, height * 2);
+            SwingUtilities.invokeLater(() -> {
+                renderingOverlay = false;
+                overlay = rendered;
+                repaint.run();
+            });
+        });
+    }
+
+    // The region is drawn opaque into its own image, so overlapping strokes do not darken when it is blended in
+    private Overlay renderReachable(View view, List<TouristSpot> reachable, int originX, int originY,
+                                    int layerWidth, int layerHeight) {
+        long started = System.nanoTime();
+        if (projection == null || !projection.matches(view)) {
+            projection = new Projection(view);
+        }
+        float[] xs = projection.xs;
+        float[] ys = projection.ys;
+        RouteGraph graph = view.graph;
+        BitSet ids = new BitSet(graph.spotCount());
+        for (TouristSpot spot : reachable) {
+            int id = graph.idOf(spot);
+            if (id >= 0) {
+                ids.set(id);
+            }
+        }
+
+        BufferedImage image = new BufferedImage(layerWidth, layerHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.translate(-originX, -originY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(REACHABLE_COLOR);
+            g.setStroke(REACHABLE_STROKE);
+
+            // The image's map-space window in degrees, widened by the shading around each spot
+            double xScale = view.width * view.zoom / (view.maxLon - view.minLon);
+            double yScale = view.height * view.zoom / (view.maxLat - view.minLat);
+            double west = view.minLon + (originX - REACHABLE_RADIUS) / xScale;
+            double east = view.minLon + (originX + layerWidth + REACHABLE_RADIUS) / xScale;
+            double north = view.maxLat - (originY - REACHABLE_RADIUS) / yScale;
+            double south = view.maxLat - (originY + layerHeight + REACHABLE_RADIUS) / yScale;
+            GraphIndex index = indexFor(graph);
+            index.edges.search(west, south, east, north, edge -> {
+                int v = index.sources[edge], w = index.targets[edge];
+                if (ids.get(v) && ids.get(w)) {
+                    g.drawLine((int) xs[v], (int) ys[v], (int) xs[w], (int) ys[w]);
+                }
+            });
+            index.spots.search(west, south, east, north, v -> {
+                if (ids.get(v)) {
+                    int x = (int) xs[v], y = (int) ys[v];
+                    g.fillOval(x - REACHABLE_RADIUS, y - REACHABLE_RADIUS, REACHABLE_RADIUS * 2, REACHABLE_RADIUS * 2);
+                }
+            });
+        } finally {
+            g.dispose();
+        }
+        RoutingMetrics.INSTANCE.record(RoutingMetrics.Operation.RENDER_LAYER, started);
+        return new Overlay(reachable, view, image, originX, originY);
+    }
+
+    private void paintRoute(Graphics2D g, int width, int height, double zoom, int panX, int panY, List<TouristSpot> route) {
+        if (route.size() < 2) {
+            return;
+        }
+        Stroke previous = g.getStroke();
+        g.setColor(ROUTE_COLOR);
+        g.setStroke(ROUTE_STROKE);
+        TouristSpot from = route.get(0);
+        int x1 = (int) mapX(from.getLongitude(), width, zoom) + panX;
+        int y1 = (int) mapY(from.getLatitude(), height, zoom) + panY;
+        for (int i = 1; i < route.size(); i++) {
+            TouristSpot to = route.get(i);
+            int x2 = (int) mapX(to.getLongitude(), width, zoom) + panX;
+            int y2 = (int) mapY(to.getLatitude(), height, zoom) + panY;
+            g.drawLine(x1, y1, x2, y2);
+            x1 = x2;
+            y1 = y2;
+        }
+        g.setStroke(previous);
+    }
+
+    // Translated by the pan, or stretched by scale as a preview while a re-render at the new zoom is in flight
+    private static void drawImage(Graphics2D g, BufferedImage image, int originX, int originY, double scale,
+                                  int panX, int panY) {
+        if (scale == 1) {
+            g.drawImage(image, originX + panX, originY + panY, null);
+        } else {
+            g.drawImage(image, (int) Math.round(originX * scale) + panX, (int) Math.round(originY * scale) + panY,
+                    (int) Math.round(image.getWidth() * scale), (int) Math.round(image.getHeight() * scale), null);
+        }
+    }
+
+    private boolean needsRender(int width, int height, double zoom, int panX, int panY) {
+        if (layer == null || layer.generation() != generation || layer.view.zoom != zoom
+                || layer.view.width != width || layer.view.height != height) {
+            return true;
+        }
+        return !covers(layer.image, layer.originX, layer.originY, width, height, panX, panY);
+    }
+
+    // The visible map-space window [-panX, -panX + width) must lie inside the image
+    private static boolean covers(BufferedImage image, int originX, int originY, int width, int height,
+                                  int panX, int panY) {
+        return -panX >= originX && -panY >= originY
+                && -panX + width <= originX + image.getWidth() && -panY + height <= originY + image.getHeight();
+    }
+
+    private void requestRender(int width, int height, double zoom, int panX, int panY) {
+        rendering = true;
+        View view = new View(graph, generation, minLat, maxLat, minLon, maxLon, width, height, zoom);
+        // Half a viewport of margin on each side, so most drags stay inside the layer
+        int originX = -panX - width / 2;
+        int originY = -panY - height / 2;
+        renderer.execute(() -> {
+            Layer rendered = render(view, originX, originY, width * 2, height * 2);
+            SwingUtilities.invokeLater(() -> {
+                rendering = false;
+                layer = rendered;
+                repaint.run();
+            });
+        });
+    }
+
+    private Layer render(View view, int originX, int originY, int layerWidth, int layerHeight) {
+        MapRenderEvent event = new MapRenderEvent();
+        event.begin();
+        long started = System.nanoTime();
+        int spotsDrawn = 0;
+        if (projection == null || !projection.matches(view)) {
+            projection = new Projection(view);
+        }
+        float[] xs = projection.xs;
+        float[] ys = projection.ys;
+        RouteGraph graph = view.graph;
+
+        BufferedImage image = new BufferedImage(layerWidth, layerHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.translate(-originX, -originY);
+            float left = originX, top = originY, right = originX + layerWidth, bottom = originY + layerHeight;
+
+            // The layer's map-space window in degrees; labels hang right of and above their spot
+            double xScale = view.width * view.zoom / (view.maxLon - view.minLon);
+            double yScale = view.height * view.zoom / (view.maxLat - view.minLat);
+            double west = view.minLon + left / xScale, east = view.minLon + right / xScale;
+            double north = view.maxLat - top / yScale, south = view.maxLat - bottom / yScale;
+            GraphIndex index = indexFor(graph);
+
+            g.setColor(EDGE_COLOR);
+            index.edges.search(west, south, east, north, edge -> {
+                int v = index.sources[edge], w = index.targets[edge];
+                g.drawLine((int) xs[v], (int) ys[v], (int) xs[w], (int) ys[w]);
+            });
+
+            IntList visible = new IntList();
+            index.spots.search(west - (LABEL_WIDTH + SPOT_RADIUS) / xScale, south - (LABEL_HEIGHT + SPOT_RADIUS) / yScale,
+                    east + SPOT_RADIUS / xScale, north + SPOT_RADIUS / yScale, visible::add);
+            spotsDrawn = visible.size;
+            boolean labels = visible.size <= (view.zoom >= LABEL_ZOOM ? MAX_LABELS_ZOOMED_IN : MAX_LABELS);
+            boolean markers = visible.size <= MAX_MARKERS;
+            g.setColor(SPOT_COLOR);
+            for (int i = 0; i < visible.size; i++) {
+                int v = visible.values[i];
+                int x = (int) xs[v], y = (int) ys[v];
+                if (markers) {
+                    g.fillOval(x - SPOT_RADIUS, y - SPOT_RADIUS, SPOT_RADIUS * 2, SPOT_RADIUS * 2);
+                } else {
+                    g.fillRect(x - 1, y - 1, 2, 2);
+                }
+                if (labels) {
+                    g.drawString(graph.spot(v).getName(), x + 10, y);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        RoutingMetrics.INSTANCE.record(RoutingMetrics.Operation.RENDER_LAYER, started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.layer = true;
+            event.width = layerWidth;
+            event.height = layerHeight;
+            event.spots = spotsDrawn;
+            event.commit();
+        }
+        return new Layer(view, image, originX, originY);
+    }
+
+    // R-trees over spot positions and connection bounding boxes, in degrees, for one graph
+    private static class GraphIndex {
+        final RouteGraph graph;
+        final SpatialIndex spots;
+        final SpatialIndex edges;
+        final int[] sources;
+        final int[] targets;
+
+        GraphIndex(RouteGraph graph) {
+            this.graph = graph;
+            int n = graph.spotCount();
+            double[] longitudes = new double[n];
+            double[] latitudes = new double[n];
+            for (int i = 0; i < n; i++) {
+                longitudes[i] = graph.longitude(i);
+                latitudes[i] = graph.latitude(i);
+            }
+            spots = SpatialIndex.ofPoints(longitudes, latitudes);
+
+            // Each connection once, from its lower id end
+            int m = graph.edgeCount() / 2;
+            sources = new int[m];
+            targets = new int[m];
+            double[] west = new double[m], south = new double[m], east = new double[m], north = new double[m];
+            int edge = 0;
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                    int w = graph.target(e);
+                    if (w > v) {
+                        sources[edge] = v;
+                        targets[edge] = w;
+                        west[edge] = Math.min(longitudes[v], longitudes[w]);
+                        east[edge] = Math.max(longitudes[v], longitudes[w]);
+                        south[edge] = Math.min(latitudes[v], latitudes[w]);
+                        north[edge] = Math.max(latitudes[v], latitudes[w]);
+                        edge++;
+                    }
+                }
+            }
+            edges = SpatialIndex.of(west, south, east, north);
+        }
+    }
+
+    private static class IntList {
+        int[] values = new int[256];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    // A reachable region rendered for one view, positioned like a layer
+    private record Overlay(List<TouristSpot> region, View view, BufferedImage image, int originX, int originY) {
+    }
+
+    // Everything the static layer depends on
+    private record View(RouteGraph graph, int generation, double minLat, double maxLat, double minLon, double maxLon,
+                        int width, int height, double zoom) {
+    }
+
+    private record Layer(View view, BufferedImage image, int originX, int originY) {
+        int generation() { return view.generation; }
+    }
+
+    // Map-space positions of every spot for one zoom, size and set of bounds
+    private static class Projection {
+        final View view;
+        final float[] xs;
+        final float[] ys;
+
+        Projection(View view) {
+            this.view = view;
+            RouteGraph graph = view.graph;
+            int n = graph.spotCount();
+            xs = new float[n];
+            ys = new float[n];
+            double xScale = view.width * view.zoom / (view.maxLon - view.minLon);
+            double yScale = view.height * view.zoom / (view.maxLat - view.minLat);
+            for (int i = 0; i < n; i++) {
+                xs[i] = (float) ((graph.longitude(i) - view.minLon) * xScale);
+                ys[i] = (float) ((view.maxLat - graph.latitude(i)) * yScale);
+            }
+        }
+
+        boolean matches(View other) {
+            return view.graph == other.graph && view.generation == other.generation
+                    && view.width == other.width && view.height == other.height && view.zoom == other.zoom;
+        }
+    }
+}
@@ -0,0 +1,1039 @@
+package travel.optimizer;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.*;
+
+
+public class UttarakhandTravelPlanning extends JPanel {
+    private Map<String, TouristSpot> spotsMap;
+    private java.util.List<TouristConnection> allConnections; 
+    private java.util.List<TouristSpot> currentPath; 
+    private List<TouristSpot> reachableSpots = new ArrayList<>(); // Shaded on the map
+    private final TravelDataSource dataSource;
+    private RoutePlanner routePlanner;
+    private RouteGraph routeGraph;
+    private MapRenderer mapRenderer;
+    private RouteGraph loadedGraph; // Prebuilt by the data source, e.g. read from the snapshot
+    private static final Path DISTANCE_MATRIX_FILE = Paths.get("routes.matrix");
+    private static final Path HIERARCHY_FILE = Paths.get("routes.ch");
+    // A distance matrix grows with the square of the spot count, so larger maps use a contraction hierarchy
+    private static final int MAX_MATRIX_SPOTS = 5000;
+    private KShortestPaths pathGenerator;
+    // Endpoints of the listed routes; pathGenerator is null until More Paths is used after a cache hit
+    private TouristSpot pathsStart, pathsEnd;
+    private RouteCache routeCache;
+    private static final int ROUTE_CACHE_CAPACITY = 1024;
+    private final List<List<TouristSpot>> shownPaths = new ArrayList<>();
+    private javax.swing.Timer bestPathIndexRefresh;
+    private SwingWorker<Object, Void> bestPathIndexWorker;
+    private int pathsShown;
+    private static final int PATHS_PER_PAGE = 10;
+    private ParallelPathEnumerator runningEnumeration;
+    private static final long ENUMERATION_TIMEOUT_SECONDS = 30;
+    private static final int MAX_STREAMED_PATHS = 2000;
+    private static final long ITINERARY_TIME_BUDGET_MILLIS = 2000;
+    private static final double DEFAULT_REACH_KM = 150;
+    private static final int MAX_LISTED_REACHABLE = 2000;
+    private static final int INDEX_REFRESH_DELAY_MILLIS = 2000;
+    private static final Path GRAPH_SNAPSHOT_FILE = Paths.get("travel.snapshot");
+    // The database cannot cheaply report changes, so its snapshot is simply refreshed this often
+    private static final Duration SNAPSHOT_MAX_AGE = Duration.ofHours(12);
+    private static final Path ACCOUNTS_FILE = Paths.get("accounts.txt");
+    private static AccountStore accounts; // Loaded on first use, on the EDT
+    private static final Path RATINGS_FILE = Paths.get("ratings.csv");
+    private RatingStore ratingStore; // Loaded on first use, on the EDT
+
+    // UI Components
+    private JComboBox<String> startComboBox;
+    private JComboBox<String> endComboBox;
+    private JTextArea routeDetailsArea;
+    private JButton morePathsButton;
+    private JButton cancelEnumerationButton;
+
+    // Map visualization parameters
+    private double zoomFactor = 1.0;
+    private int panX = 0, panY = 0;
+    private Point lastDragPoint;
+
+    // Geographical bounds
+    private double minLat, maxLat, minLon, maxLon;
+
+    public UttarakhandTravelPlanning() {
+        this(new SnapshotDataSource(GRAPH_SNAPSHOT_FILE,
+                new FallbackDataSource(new DatabaseDataSource(), offlineDataSource()), SNAPSHOT_MAX_AGE));
+    }
+
+    // The CSV export from the last database load, or the bundled con2.csv if there is none
+    private static TravelDataSource offlineDataSource() {
+        Path connections = Files.isRegularFile(Paths.get("con.csv")) ? Paths.get("con.csv") : Paths.get("con2.csv");
+        return new CsvDataSource(Paths.get("loc.csv"), connections);
+    }
+
+    public UttarakhandTravelPlanning(TravelDataSource dataSource) {
+        this.dataSource = dataSource;
+        spotsMap = new HashMap<>();
+        allConnections = new ArrayList<>();
+        currentPath = new ArrayList<>();
+
+        initializeMap();
+        setupUI();
+    }
+
+    private void initializeMap() {
+        loadTravelData();
+        buildRouteGraph();
+        calculateGeographicalBounds();
+        mapRenderer = new MapRenderer(routeGraph, this::repaint);
+        mapRenderer.setBounds(minLat, maxLat, minLon, maxLon);
+        setupInteractiveMapFeatures();
+    }
+
+    private void loadTravelData() {
+        try {
+            TravelData data = TravelData.load(dataSource);
+            loadedGraph = data.routeGraph();
+            spotsMap.putAll(data.getSpots());
+            allConnections.addAll(data.getConnections());
+        } catch (SQLException | IOException e) {
+            JOptionPane.showMessageDialog(this, 
+                "Error loading locations and connections: " + e.getMessage(), 
+                "Loading Error", 
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private void buildRouteGraph() {
+        routePlanner = loadedGraph != null
+            ? new RoutePlanner(loadedGraph)
+            : new RoutePlanner(spotsMap.values(), allConnections);
+        routeGraph = routePlanner.graph();
+        routeCache = new RouteCache(routePlanner, ROUTE_CACHE_CAPACITY);
+        RoutingMetrics.INSTANCE.track(routeCache);
+        routePlanner.addChangeListener(change -> SwingUtilities.invokeLater(() -> applyGraphChange(change)));
+        // Edits often come in bursts, so the index is only rebuilt once they have settled
+        bestPathIndexRefresh = new javax.swing.Timer(INDEX_REFRESH_DELAY_MILLIS, e -> precomputeBestPathIndex(routePlanner));
+        bestPathIndexRefresh.setRepeats(false);
+        precomputeBestPathIndex(routePlanner);
+    }
+
+    // Live map edits. The planner publishes a new graph version per edit, so searches already running finish on
+    // the version they started with; the panel then catches up in applyGraphChange
+    public GraphChange addConnection(TouristConnection connection) {
+        return routePlanner.addConnection(connection);
+    }
+
+    public GraphChange reweightConnection(TouristSpot a, TouristSpot b, double distance) {
+        return routePlanner.reweightConnection(a, b, distance);
+    }
+
+    public GraphChange removeConnection(TouristSpot a, TouristSpot b) {
+        return routePlanner.removeConnection(a, b);
+    }
+
+    public GraphChange addSpot(TouristSpot spot) {
+        return routePlanner.addSpot(spot);
+    }
+
+    public GraphChange removeSpot(TouristSpot spot) {
+        return routePlanner.removeSpot(spot);
+    }
+
+    // Drops only the displayed routes and map layer the change touches
+    private void applyGraphChange(GraphChange change) {
+        routeGraph = change.graph();
+        TouristSpot spot = change.spot();
+        if (change.kind() == GraphChange.Kind.SPOT_ADDED) {
+            spotsMap.put(spot.getName(), spot);
+            startComboBox.addItem(spot.getName());
+            endComboBox.addItem(spot.getName());
+        } else if (change.kind() == GraphChange.Kind.SPOT_REMOVED) {
+            spotsMap.remove(spot.getName());
+            startComboBox.removeItem(spot.getName());
+            endComboBox.removeItem(spot.getName());
+        }
+
+        if (calculateGeographicalBounds()) {
+            mapRenderer.setBounds(minLat, maxLat, minLon, maxLon);
+        }
+        mapRenderer.applyChange(change);
+
+        if (currentPath.size() > 1
+                && change.affects(currentPath.get(0), currentPath.get(currentPath.size() - 1), currentPath)) {
+            currentPath = new ArrayList<>();
+            routeDetailsArea.append("\nThe map changed along this route; search again for an up-to-date one.\n");
+        }
+        if (!reachableSpots.isEmpty()) {
+            reachableSpots = new ArrayList<>();
+            routeDetailsArea.append("\nThe map changed; search again for the places now within reach.\n");
+        }
+        if (pathsStart != null && affectsAny(change, shownPaths)) {
+            pathGenerator = null;
+            pathsStart = pathsEnd = null;
+            morePathsButton.setEnabled(false);
+        }
+
+        bestPathIndexRefresh.restart();
+        repaint();
+    }
+
+    private static boolean affectsAny(GraphChange change, List<List<TouristSpot>> routes) {
+        for (List<TouristSpot> route : routes) {
+            if (route.size() > 1 && change.affects(route.get(0), route.get(route.size() - 1), route)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Distance matrix or contraction hierarchy, depending on the map size. Best-path queries fall back to the
+    // shortest-path engine until it is ready
+    private void precomputeBestPathIndex(RoutePlanner planner) {
+        if (bestPathIndexWorker != null && !bestPathIndexWorker.isDone()) {
+            bestPathIndexRefresh.restart(); // One build at a time; try again once this one is finished
+            return;
+        }
+        RouteGraph graph = planner.graph();
+        bestPathIndexWorker = new SwingWorker<Object, Void>() {
+            @Override
+            protected Object doInBackground() throws IOException {
+                if (graph.spotCount() <= MAX_MATRIX_SPOTS) {
+                    return DistanceMatrix.openOrPrecompute(graph, DISTANCE_MATRIX_FILE);
+                }
+                return ContractionHierarchy.openOrBuild(graph, HIERARCHY_FILE);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    Object index = get();
+                    if (index instanceof DistanceMatrix matrix) {
+                        planner.attachDistanceMatrix(matrix);
+                    } else {
+                        planner.attachContractionHierarchy((ContractionHierarchy) index);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Best-path index unavailable: " + e.getMessage());
+                }
+            }
+        };
+        bestPathIndexWorker.execute();
+    }
+
+    // The graph keeps its bounds up to date as spots are added and removed; returns whether they moved
+    private boolean calculateGeographicalBounds() {
+        boolean changed = minLat != routeGraph.minLatitude() || maxLat != routeGraph.maxLatitude()
+            || minLon != routeGraph.minLongitude() || maxLon != routeGraph.maxLongitude();
+        minLat = routeGraph.minLatitude();
+        maxLat = routeGraph.maxLatitude();
+        minLon = routeGraph.minLongitude();
+        maxLon = routeGraph.maxLongitude();
+        return changed;
+    }
+
+    private void setupInteractiveMapFeatures() {
+        setFocusable(true);
+        addMouseWheelListener(e -> {
+            int mouseX = e.getX();
+            int mouseY = e.getY();
+            double scaleFactor = e.getPreciseWheelRotation() < 0 ? 1.1 : 0.9;
+            double newZoomFactor = Math.max(0.5, Math.min(zoomFactor * scaleFactor, 5.0));
+
+            if (Math.abs(newZoomFactor - zoomFactor) > 0.01) {
+                double oldZoomFactor = zoomFactor;
+                zoomFactor = newZoomFactor;
+                double zoomRatio = zoomFactor / oldZoomFactor;
+                panX = (int) (panX - (mouseX - panX) * (1 - zoomRatio));
+                panY = (int) (panY - (mouseY - panY) * (1 - zoomRatio));
+            }
+
+            repaint();
+        });
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                lastDragPoint = e.getPoint();
+            }
+
+            // Click picks the start spot, right- or shift-click the end spot
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                TouristSpot spot = mapRenderer.pick(e.getX(), e.getY(), getWidth(), getHeight(), zoomFactor, panX, panY);
+                if (spot == null) {
+                    return;
+                }
+                boolean end = SwingUtilities.isRightMouseButton(e) || e.isShiftDown();
+                (end ? endComboBox : startComboBox).setSelectedItem(spot.getName());
+            }
+        });
+
+        addMouseMotionListener(new MouseAdapter() {
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                panX += e.getX() - lastDragPoint.x;
+                panY += e.getY() - lastDragPoint.y;
+                lastDragPoint = e.getPoint();
+                repaint();
+            }
+        });
+    }
+
+    private void setupUI() {
+        setLayout(new BorderLayout());
+        
+        JPanel dropdownPanel = new JPanel(new FlowLayout());
+        startComboBox = new JComboBox<>(spotsMap.keySet().toArray(new String[0]));
+        endComboBox = new JComboBox<>(spotsMap.keySet().toArray(new String[0]));
+
+        JButton findBestPathButton = new JButton("Find Best Path");
+        findBestPathButton.addActionListener(e -> findAndDisplayBestPath());
+
+        JButton findAllPathsButton = new JButton("Find All Paths");
+        findAllPathsButton.addActionListener(e -> findAndDisplayAllPaths());
+
+        morePathsButton = new JButton("More Paths");
+        morePathsButton.setEnabled(false);
+        morePathsButton.addActionListener(e -> displayMorePaths());
+
+        JButton enumerateAllButton = new JButton("Enumerate Every Path");
+        enumerateAllButton.addActionListener(e -> enumerateAllPathsInBackground());
+
+        cancelEnumerationButton = new JButton("Cancel");
+        cancelEnumerationButton.setEnabled(false);
+        cancelEnumerationButton.addActionListener(e -> {
+            if (runningEnumeration != null) {
+                runningEnumeration.cancel();
+            }
+        });
+
+        dropdownPanel.add(new JLabel("Start: "));
+        dropdownPanel.add(startComboBox);
+        dropdownPanel.add(new JLabel("End: "));
+        dropdownPanel.add(endComboBox);
+        dropdownPanel.add(findBestPathButton);
+        dropdownPanel.add(findAllPathsButton);  
+        dropdownPanel.add(morePathsButton);
+        dropdownPanel.add(enumerateAllButton);
+        dropdownPanel.add(cancelEnumerationButton);
+
+        JButton planItineraryButton = new JButton("Plan Itinerary");
+        planItineraryButton.addActionListener(e -> planAndDisplayItinerary());
+        dropdownPanel.add(planItineraryButton);
+
+        JButton ratedRoutesButton = new JButton("Rated Routes");
+        ratedRoutesButton.addActionListener(e -> findAndDisplayRatedRoutes());
+        dropdownPanel.add(ratedRoutesButton);
+
+        JButton reachableButton = new JButton("Reachable");
+        reachableButton.addActionListener(e -> findAndDisplayReachable());
+        dropdownPanel.add(reachableButton);
+
+        JButton rateRouteButton = new JButton("Rate Route");
+        rateRouteButton.addActionListener(e -> {
+            if (currentPath != null && !currentPath.isEmpty()) {
+                collectRatingsAndSaveToCSV(currentPath);
+            }
+        });
+        dropdownPanel.add(rateRouteButton);
+
+        JButton editRoadButton = new JButton("Edit Road");
+        editRoadButton.addActionListener(e -> editRoad());
+        dropdownPanel.add(editRoadButton);
+
+        JButton addSpotButton = new JButton("Add Spot");
+        addSpotButton.addActionListener(e -> addSpotFromForm());
+        dropdownPanel.add(addSpotButton);
+
+        JButton removeSpotButton = new JButton("Remove Spot");
+        removeSpotButton.addActionListener(e -> removeSelectedSpot());
+        dropdownPanel.add(removeSpotButton);
+
+        routeDetailsArea = new JTextArea(10, 30);
+        routeDetailsArea.setEditable(false);
+        JScrollPane scrollPane = new JScrollPane(routeDetailsArea);
+
+        add(dropdownPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.EAST);
+    }
+
+    private void findAndDisplayBestPath() {
+        String startName = (String) startComboBox.getSelectedItem();
+        String endName = (String) endComboBox.getSelectedItem();
+
+        TouristSpot start = spotsMap.get(startName);
+        TouristSpot end = spotsMap.get(endName);
+
+        if (start == null || end == null) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please select valid start and end locations", 
+                    "Route Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        RouteCache.Result result = routeCache.get(start, end, RouteCache.Mode.BEST, 1, () -> {
+            RoutePlanner.BestPath bestPath = routePlanner.findBestPathWithGraph(start, end);
+            return new RouteCache.Result(List.of(bestPath.route()),
+                    formatRouteDetails(bestPath.route(), bestPath.graph()));
+        });
+
+        routeDetailsArea.setText(result.text());
+        currentPath = result.routes().get(0);
+        repaint();
+    }
+
+    private void findAndDisplayAllPaths() {
+        String startName = (String) startComboBox.getSelectedItem();
+        String endName = (String) endComboBox.getSelectedItem();
+
+        TouristSpot start = spotsMap.get(startName);
+        TouristSpot end = spotsMap.get(endName);
+
+        if (start == null || end == null) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please select valid start and end locations", 
+                    "Route Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        KShortestPaths[] generator = new KShortestPaths[1];
+        RouteCache.Result result = routeCache.get(start, end, RouteCache.Mode.PATHS, PATHS_PER_PAGE, () -> {
+            generator[0] = routePlanner.shortestPaths(start, end);
+            List<List<TouristSpot>> firstPage = generator[0].nextPage(PATHS_PER_PAGE);
+            return new RouteCache.Result(firstPage, formatAllRouteDetails(firstPage, generator[0].graph()));
+        });
+
+        pathGenerator = generator[0];
+        pathsStart = start;
+        pathsEnd = end;
+        shownPaths.clear();
+        shownPaths.addAll(result.routes());
+        pathsShown = result.routes().size();
+        routeDetailsArea.setText(result.text());
+        // A cached full page may have more routes behind it; displayMorePaths finds out
+        morePathsButton.setEnabled(pathGenerator != null ? pathGenerator.hasNext() : pathsShown == PATHS_PER_PAGE);
+        repaint();
+    }
+
+    private void displayMorePaths() {
+        if (pathGenerator == null) {
+            if (pathsStart == null) {
+                return;
+            }
+            // The first page came from the cache, so search again and skip past it
+            pathGenerator = routePlanner.shortestPaths(pathsStart, pathsEnd);
+            pathGenerator.nextPage(pathsShown);
+        }
+        if (!pathGenerator.hasNext()) {
+            morePathsButton.setEnabled(false);
+            return;
+        }
+        List<List<TouristSpot>> page = pathGenerator.nextPage(PATHS_PER_PAGE);
+        StringBuilder details = new StringBuilder();
+        appendRoutes(details, page, pathsShown + 1, pathGenerator.graph());
+        pathsShown += page.size();
+        shownPaths.addAll(page);
+        routeDetailsArea.append(details.toString());
+        morePathsButton.setEnabled(pathGenerator.hasNext());
+    }
+
+    private void enumerateAllPathsInBackground() {
+        TouristSpot start = spotsMap.get((String) startComboBox.getSelectedItem());
+        TouristSpot end = spotsMap.get((String) endComboBox.getSelectedItem());
+
+        if (start == null || end == null || routeGraph.idOf(start) < 0 || routeGraph.idOf(end) < 0) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please select valid start and end locations", 
+                    "Route Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (runningEnumeration != null) {
+            runningEnumeration.cancel();
+        }
+
+        RouteGraph graph = routeGraph;
+        ParallelPathEnumerator enumerator = new ParallelPathEnumerator(graph, graph.idOf(start), graph.idOf(end));
+        runningEnumeration = enumerator;
+        cancelEnumerationButton.setEnabled(true);
+        routeDetailsArea.setText("Every Route (unordered):\n\n");
+
+        new SwingWorker<Long, String>() {
+            private final AtomicInteger streamed = new AtomicInteger();
+
+            @Override
+            protected Long doInBackground() {
+                return enumerator.enumerate(ENUMERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                        (path, length) -> {
+                            if (streamed.getAndIncrement() < MAX_STREAMED_PATHS) {
+                                publish(formatRoute(graph, path, length));
+                            }
+                        });
+            }
+
+            @Override
+            protected void process(List<String> routes) {
+                if (runningEnumeration != enumerator) {
+                    return; // A newer enumeration has replaced this one
+                }
+                for (String route : routes) {
+                    routeDetailsArea.append(route);
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (runningEnumeration != enumerator) {
+                    return;
+                }
+                long found = enumerator.pathsFound();
+                StringBuilder summary = new StringBuilder(String.format("\n%d route(s) found", found));
+                if (found > MAX_STREAMED_PATHS) {
+                    summary.append(String.format(", first %d shown", MAX_STREAMED_PATHS));
+                }
+                if (enumerator.isCancelled()) {
+                    summary.append(" (cancelled)");
+                } else if (enumerator.isTimedOut()) {
+                    summary.append(String.format(" (stopped after %d s)", ENUMERATION_TIMEOUT_SECONDS));
+                }
+                routeDetailsArea.append(summary.append('\n').toString());
+                cancelEnumerationButton.setEnabled(false);
+                runningEnumeration = null;
+            }
+        }.execute();
+    }
+
+    // Runs on worker threads, so it reads the graph the enumeration started on rather than the current one
+    private static String formatRoute(RouteGraph graph, int[] path, int length) {
+        StringBuilder route = new StringBuilder("Route: ");
+        for (int i = 0; i < length; i++) {
+            route.append(graph.spot(path[i]).getName()).append(i < length - 1 ? " → " : "");
+        }
+        return route.append(String.format(" (Total Distance: %.2f km)\n", graph.pathDistance(path, length))).toString();
+    }
+
+    private void planAndDisplayItinerary() {
+        TouristSpot start = spotsMap.get((String) startComboBox.getSelectedItem());
+        if (start == null) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please select a valid start location", 
+                    "Itinerary Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        String[] names = spotsMap.keySet().stream().filter(name -> !name.equals(start.getName()))
+                .sorted().toArray(String[]::new);
+        JList<String> stopList = new JList<>(names);
+        stopList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        stopList.setVisibleRowCount(15);
+        int option = JOptionPane.showConfirmDialog(this, new JScrollPane(stopList),
+                "Places to visit from " + start.getName(), JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION || stopList.getSelectedValuesList().isEmpty()) {
+            return;
+        }
+
+        List<TouristSpot> stops = new ArrayList<>();
+        for (String name : stopList.getSelectedValuesList()) {
+            stops.add(spotsMap.get(name));
+        }
+        routeDetailsArea.setText("Planning itinerary...");
+
+        // The engine and graph must be the same version, as the optimizer indexes one by the other's ids
+        ShortestPathEngine engine = routePlanner.engine();
+        ItineraryOptimizer optimizer = new ItineraryOptimizer(engine.graph(), engine);
+        new SwingWorker<ItineraryOptimizer.Itinerary, Void>() {
+            @Override
+            protected ItineraryOptimizer.Itinerary doInBackground() {
+                return optimizer.plan(start, stops, ITINERARY_TIME_BUDGET_MILLIS);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    displayItinerary(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    routeDetailsArea.setText("Itinerary planning failed: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    // Trade-offs between distance, stops and ratings; the shortest of them is drawn
+    private void findAndDisplayRatedRoutes() {
+        TouristSpot start = spotsMap.get((String) startComboBox.getSelectedItem());
+        TouristSpot end = spotsMap.get((String) endComboBox.getSelectedItem());
+        if (start == null || end == null) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please select valid start and end locations", 
+                    "Route Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        RatingStore store = ratings();
+        if (store == null) {
+            return;
+        }
+        routeDetailsArea.setText("Finding rated routes...");
+
+        RoutePlanner planner = routePlanner;
+        new SwingWorker<ParetoRouter.Frontier, Void>() {
+            @Override
+            protected ParetoRouter.Frontier doInBackground() {
+                return planner.paretoRoutes(start, end, store);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    displayRatedRoutes(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    routeDetailsArea.setText("Rated route search failed: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void displayRatedRoutes(ParetoRouter.Frontier frontier) {
+        if (frontier.routes().isEmpty()) {
+            routeDetailsArea.setText("No route found.");
+            return;
+        }
+
+        StringBuilder details = new StringBuilder("Routes by distance, stops and rating:\n\n");
+        int number = 1;
+        for (ParetoRouter.Route route : frontier.routes()) {
+            details.append(String.format("%d. %.2f km, %d stops, rated %.1f: ", number++, route.distance(),
+                    route.stops(), route.averageRating()));
+            for (int i = 0; i < route.spots().size(); i++) {
+                details.append(i == 0 ? "" : " → ").append(route.spots().get(i).getName());
+            }
+            details.append("\n");
+        }
+        if (!frontier.complete()) {
+            details.append("\nSearch limit reached; these are the best routes found.\n");
+        }
+        routeDetailsArea.setText(details.toString());
+
+        currentPath = frontier.routes().get(0).spots();
+        repaint();
+    }
+
+    // The road between the selected start and end: a distance adds it or changes it, an empty field removes it
+    private void editRoad() {
+        TouristSpot a = spotsMap.get((String) startComboBox.getSelectedItem());
+        TouristSpot b = spotsMap.get((String) endComboBox.getSelectedItem());
+        if (a == null || b == null || a.equals(b)) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please select two different locations", 
+                    "Edit Road Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        double current = routePlanner.graph().distance(a, b);
+        String input = JOptionPane.showInputDialog(this,
+                "Distance from " + a.getName() + " to " + b.getName() + " in km (empty removes the road):",
+                Double.isNaN(current) ? "" : String.valueOf(current));
+        if (input == null) {
+            return;
+        }
+        try {
+            if (input.isBlank()) {
+                if (removeConnection(a, b) == null) {
+                    routeDetailsArea.setText("There is no road between " + a.getName() + " and " + b.getName() + ".");
+                }
+            } else if (Double.isNaN(current)) {
+                addConnection(new TouristConnection(a, b, Double.parseDouble(input.trim())));
+            } else {
+                reweightConnection(a, b, Double.parseDouble(input.trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please enter a distance in km", 
+                    "Edit Road Error", 
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void addSpotFromForm() {
+        JTextField nameField = new JTextField(20);
+        JTextField latitudeField = new JTextField(8);
+        JTextField longitudeField = new JTextField(8);
+        JPanel form = new JPanel(new GridLayout(3, 2));
+        form.add(new JLabel("Name: "));
+        form.add(nameField);
+        form.add(new JLabel("Latitude: "));
+        form.add(latitudeField);
+        form.add(new JLabel("Longitude: "));
+        form.add(longitudeField);
+        int option = JOptionPane.showConfirmDialog(this, form, "Add Spot", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) {
+            return;
+        }
+        String name = nameField.getText().trim();
+        try {
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Please enter a name");
+            }
+            addSpot(new TouristSpot(name, Double.parseDouble(latitudeField.getText().trim()),
+                    Double.parseDouble(longitudeField.getText().trim())));
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please enter the latitude and longitude in degrees", 
+                    "Add Spot Error", 
+                    JOptionPane.ERROR_MESSAGE);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Add Spot Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Removes the selected start location with all its roads
+    private void removeSelectedSpot() {
+        TouristSpot spot = spotsMap.get((String) startComboBox.getSelectedItem());
+        if (spot == null) {
+            return;
+        }
+        int option = JOptionPane.showConfirmDialog(this,
+                "Remove " + spot.getName() + " and all its roads from the map?", "Remove Spot",
+                JOptionPane.OK_CANCEL_OPTION);
+        if (option == JOptionPane.OK_OPTION) {
+            removeSpot(spot);
+        }
+    }
+
+    // Everything within a distance of the chosen starts; OK with no start selected clears the shading
+    private void findAndDisplayReachable() {
+        JList<String> startList = new JList<>(spotsMap.keySet().stream().sorted().toArray(String[]::new));
+        startList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        startList.setVisibleRowCount(15);
+        startList.setSelectedValue(startComboBox.getSelectedItem(), true);
+        JTextField budgetField = new JTextField(String.format("%.0f", DEFAULT_REACH_KM), 8);
+        JPanel budgetPanel = new JPanel(new FlowLayout());
+        budgetPanel.add(new JLabel("Within (km): "));
+        budgetPanel.add(budgetField);
+        JPanel form = new JPanel(new BorderLayout());
+        form.add(new JScrollPane(startList), BorderLayout.CENTER);
+        form.add(budgetPanel, BorderLayout.SOUTH);
+        int option = JOptionPane.showConfirmDialog(this, form, "Reachable from", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) {
+            return;
+        }
+        if (startList.getSelectedValuesList().isEmpty()) {
+            reachableSpots = new ArrayList<>();
+            repaint();
+            return;
+        }
+
+        double budget;
+        try {
+            budget = Double.parseDouble(budgetField.getText().trim());
+        } catch (NumberFormatException e) {
+            budget = -1;
+        }
+        if (budget < 0) {
+            JOptionPane.showMessageDialog(this, 
+                    "Please enter a distance in km", 
+                    "Reachability Error", 
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        List<TouristSpot> starts = new ArrayList<>();
+        for (String name : startList.getSelectedValuesList()) {
+            starts.add(spotsMap.get(name));
+        }
+        routeDetailsArea.setText("Finding reachable places...");
+
+        RoutePlanner planner = routePlanner;
+        double within = budget;
+        new SwingWorker<List<Reachability.Reach>, Void>() {
+            @Override
+            protected List<Reachability.Reach> doInBackground() {
+                return planner.reachable(starts, within);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    displayReachable(get(), within);
+                } catch (InterruptedException | ExecutionException e) {
+                    routeDetailsArea.setText("Reachability search failed: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    private void displayReachable(List<Reachability.Reach> reachable, double budget) {
+        StringBuilder details = new StringBuilder(String.format("%d place(s) within %.1f km (nearest first):\n\n",
+                reachable.size(), budget));
+        int listed = Math.min(reachable.size(), MAX_LISTED_REACHABLE);
+        for (int i = 0; i < listed; i++) {
+            Reachability.Reach reach = reachable.get(i);
+            details.append(String.format("%s (%.2f km)\n", reach.spot().getName(), reach.distance()));
+        }
+        if (reachable.size() > listed) {
+            details.append(String.format("\n... and %d more\n", reachable.size() - listed));
+        }
+        routeDetailsArea.setText(details.toString());
+
+        List<TouristSpot> spots = new ArrayList<>(reachable.size());
+        for (Reachability.Reach reach : reachable) {
+            spots.add(reach.spot());
+        }
+        reachableSpots = spots;
+        repaint();
+    }
+
+    private void displayItinerary(ItineraryOptimizer.Itinerary itinerary) {
+        if (itinerary == null) {
+            routeDetailsArea.setText("Some of the selected places cannot be reached.");
+            return;
+        }
+
+        StringBuilder details = new StringBuilder(itinerary.exact
+                ? "Itinerary (shortest visiting order):\n\n"
+                : "Itinerary (best order found in time budget):\n\n");
+        for (int i = 0; i < itinerary.stops.size(); i++) {
+            details.append(String.format("%d. %s\n", i + 1, itinerary.stops.get(i).getName()));
+        }
+        details.append(String.format("\nTotal Itinerary Distance: %.2f km", itinerary.totalDistance));
+        routeDetailsArea.setText(details.toString());
+
+        currentPath = itinerary.route;
+        repaint();
+    }
+
+    private String formatRouteDetails(List<TouristSpot> route, RouteGraph graph) {
+        if (route.isEmpty()) {
+            return "No route found.";
+        }
+    
+        StringBuilder details = new StringBuilder("Best Route Details:\n\n");
+        double totalDistance = 0;
+    
+        for (int i = 0; i < route.size() - 1; i++) {
+            TouristSpot start = route.get(i);
+            TouristSpot end = route.get(i + 1);
+            
+            double distance = graph.distance(start, end); // NaN if the spots are not directly connected
+            if (!Double.isNaN(distance)) {
+                details.append(String.format("%d. %s → %s (%.2f km)\n", 
+                    i + 1, start.getName(), end.getName(), distance));
+                totalDistance += distance;
+            } else {
+                details.append(String.format("%d. %s → %s (Distance not found)\n", 
+                    i + 1, start.getName(), end.getName()));
+            }
+        }
+    
+        details.append(String.format("\nTotal Route Distance: %.2f km", totalDistance));
+        return details.toString();
+    }
+
+    private String formatAllRouteDetails(List<List<TouristSpot>> allPaths, RouteGraph graph) {
+        if (allPaths.isEmpty()) {
+            return "No route found.";
+        }
+    
+        StringBuilder details = new StringBuilder("All Routes (shortest first):\n\n");
+        appendRoutes(details, allPaths, 1, graph);
+        return details.toString();
+    }
+
+    // graph is the version the routes were found on
+    private void appendRoutes(StringBuilder details, List<List<TouristSpot>> routes, int firstNumber, RouteGraph graph) {
+        int number = firstNumber;
+        for (List<TouristSpot> route : routes) {
+            double totalDistance = graph.pathDistance(route);
+            details.append(String.format("%d. Route: ", number++));
+            for (int i = 0; i < route.size() - 1; i++) {
+                TouristSpot start = route.get(i);
+                TouristSpot end = route.get(i + 1);
+                if (!Double.isNaN(graph.distance(start, end))) {
+                    details.append(String.format("%s → ", start.getName()));
+                }
+            }
+            details.append(String.format("%s (Total Distance: %.2f km)\n", route.get(route.size() - 1).getName(), totalDistance));
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (mapRenderer != null) {
+            mapRenderer.paint((Graphics2D) g, getWidth(), getHeight(), zoomFactor, panX, panY, currentPath,
+                    reachableSpots);
+        }
+    }
+
+    private void collectRatingsAndSaveToCSV(List<TouristSpot> route) {
+        Map<String, Integer> ratings = new HashMap<>();
+        StringBuilder ratingDetails = new StringBuilder("Ratings for Tourist Spots:\n\n");
+
+        for (TouristSpot spot : route) {
+            String ratingInput = JOptionPane.showInputDialog(this, 
+                    "Rate the spot " + spot.getName() + " (1 to 5 stars):");
+            
+            try {
+                int rating = Integer.parseInt(ratingInput);
+                if (rating >= 1 && rating <= 5) {
+                    ratings.put(spot.getName(), rating);
+                    ratingDetails.append(spot.getName()).append(": ").append(rating).append(" stars\n");
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                            "Please enter a rating between 1 and 5.", 
+                            "Invalid Rating", 
+                            JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(this, 
+                        "Please enter a valid number for the rating.", 
+                        "Invalid Input", 
+                        JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+        }
+
+        JOptionPane.showMessageDialog(this, ratingDetails.toString(), 
+                "Tourist Spot Ratings", JOptionPane.INFORMATION_MESSAGE);
+
+        saveRatingsToCSV(ratings);
+    }
+
+    // Appended to the ratings log, so earlier ratings are kept and averaged in
+    private void saveRatingsToCSV(Map<String, Integer> ratings) {
+        RatingStore store = ratings();
+        if (store == null) {
+            return;
+        }
+        try {
+            store.add(ratings);
+
+            JOptionPane.showMessageDialog(this, "Ratings saved to ratings.csv.", 
+                    "Save Successful", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, 
+                    "Error saving ratings: " + e.getMessage(), 
+                    "Save Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static boolean showLoginScreen() {
+        int option = JOptionPane.showOptionDialog(null, 
+            "Do you have an account?", 
+            "Login", 
+            JOptionPane.YES_NO_OPTION, 
+            JOptionPane.QUESTION_MESSAGE, 
+            null, null, null);
+        
+        if (option == JOptionPane.YES_OPTION) {
+            return loginUser ();
+        } else {
+            return createAccount();
+        }
+    }
+
+    private static boolean loginUser () {
+        String username = JOptionPane.showInputDialog("Enter username:");
+        String password = JOptionPane.showInputDialog("Enter password:");
+
+        return verifyCredentials(username, password);
+    }
+
+    private static boolean createAccount() {
+        String username = JOptionPane.showInputDialog("Enter a new username:");
+        String password = JOptionPane.showInputDialog("Enter a new password:");
+
+        return saveAccount(username, password);
+    }
+
+    // Null, after telling the user, if the ratings file cannot be read
+    private RatingStore ratings() {
+        if (ratingStore == null) {
+            try {
+                ratingStore = RatingStore.open(RATINGS_FILE);
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, 
+                        "Error reading ratings: " + e.getMessage(), 
+                        "File Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+        return ratingStore;
+    }
+
+    private static AccountStore accounts() throws IOException {
+        if (accounts == null) {
+            accounts = AccountStore.open(ACCOUNTS_FILE);
+        }
+        return accounts;
+    }
+
+    private static boolean verifyCredentials(String username, String password) {
+        try {
+            return accounts().verify(username, password);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, 
+                    "Error reading accounts file: " + e.getMessage(), "File Error", JOptionPane.ERROR_MESSAGE);
+        }
+        return false;  // No match found
+    }
+
+    private static boolean saveAccount(String username, String password) {
+        if (username == null || password == null) {
+            return false;  // Sign-up cancelled
+        }
+        if (!AccountStore.isValid(username) || !AccountStore.isValid(password)) {
+            JOptionPane.showMessageDialog(null, 
+                    "Username and password must not be empty or contain commas.", 
+                    "Sign-up Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        try {
+            if (!accounts().register(username, password)) {
+                JOptionPane.showMessageDialog(null, 
+                        "The username " + username + " is already taken.", 
+                        "Sign-up Error", JOptionPane.ERROR_MESSAGE);
+                return false;
+            }
+            return true;  // Account saved successfully
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Sign-up Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, 
+                    "Error saving account: " + e.getMessage(), 
+                    "Save Error", JOptionPane.ERROR_MESSAGE);
+            return false;  // Failed to save account
+        }
+    }
+
+    public static void main(String[] args) {
+        RoutingMetrics.register();
+        SwingUtilities.invokeLater(() -> {
+            if (showLoginScreen()) {
+                JFrame frame = new JFrame("Uttarakhand Travel Planner");
+                UttarakhandTravelPlanning planner = new UttarakhandTravelPlanning();
+                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                frame.add(planner);
+                frame.setSize(1200, 800);
+                frame.setVisible(true);
+            } else {
+                JOptionPane.showMessageDialog(null, "Login failed. Exiting application.");
+                System.exit(0);
+            }
+        });
+    }
+}
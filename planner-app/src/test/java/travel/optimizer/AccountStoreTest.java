@@ -0,0 +1,99 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AccountStoreTest {
+
+    @Test
+    void firstSignUpCreatesTheFile(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("accounts.txt");
+        AccountStore store = AccountStore.open(file);
+
+        assertTrue(store.register("asha", "secret"));
+        assertEquals("asha,secret\n", Files.readString(file, StandardCharsets.UTF_8));
+        assertTrue(store.verify("asha", "secret"));
+        assertFalse(store.verify("asha", "guess"));
+        assertFalse(store.register("asha", "other"));
+    }
+
+    @Test
+    void seesAccountsAnotherStoreSignedUp(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("accounts.txt");
+        AccountStore first = AccountStore.open(file);
+        AccountStore second = AccountStore.open(file);
+
+        assertTrue(first.register("asha", "secret"));
+        assertTrue(second.verify("asha", "secret"));
+        assertFalse(second.register("asha", "other"));
+    }
+
+    // Repeated names, cancelled sign-ups, malformed and torn rows are dropped by the next writer
+    @Test
+    void compactsStaleRowsAndRecoversFromATornRow(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("accounts.txt");
+        Files.writeString(file, "asha,secret\nnull,null\nasha,later\nno separator\nravi,pass", StandardCharsets.UTF_8);
+        AccountStore store = AccountStore.open(file);
+
+        assertEquals(1, store.size());
+        assertTrue(store.verify("asha", "secret"));
+        assertTrue(store.register("meera", "pw"));
+        assertEquals(List.of("asha,secret", "meera,pw"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        assertEquals(2, AccountStore.open(file).size());
+    }
+
+    @Test
+    void rejectsValuesThatCannotBeStored(@TempDir Path directory) throws Exception {
+        AccountStore store = AccountStore.open(directory.resolve("accounts.txt"));
+
+        assertThrows(IllegalArgumentException.class, () -> store.register("a,b", "secret"));
+        assertThrows(IllegalArgumentException.class, () -> store.register("asha", ""));
+        assertThrows(IllegalArgumentException.class, () -> store.register("null", "null"));
+        assertFalse(Files.exists(directory.resolve("accounts.txt")));
+    }
+
+    // Two stores on one fresh file, as two planners would have: every name is taken exactly once and every row
+    // survives
+    @Test
+    void concurrentSignUpsEachLandOnce(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("accounts.txt");
+        AccountStore[] stores = {AccountStore.open(file), AccountStore.open(file)};
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> signUps = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                AccountStore store = stores[i % 2];
+                String username = "user" + (i / 2);
+                String password = "pw" + i;
+                signUps.add(() -> store.register(username, password));
+            }
+            int registered = 0;
+            for (Future<Boolean> signUp : pool.invokeAll(signUps)) {
+                registered += signUp.get() ? 1 : 0;
+            }
+            assertEquals(100, registered);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(100, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        AccountStore reopened = AccountStore.open(file);
+        assertEquals(100, reopened.size());
+        for (int i = 0; i < 100; i++) {
+            String username = "user" + i;
+            assertTrue(reopened.verify(username, "pw" + (2 * i)) ^ reopened.verify(username, "pw" + (2 * i + 1)));
+            assertEquals(reopened.verify(username, "pw" + (2 * i)), stores[0].verify(username, "pw" + (2 * i)));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MapRendererTest {
+    private static final int SIZE = 1000;
+
+    // Picking only reads an index the render thread has published, and never offers a spot removed since
+    @Test
+    void picksFromThePublishedIndex() throws Exception {
+        TouristSpot dehradun = new TouristSpot("Dehradun", 30.3165, 78.0322);
+        TouristSpot rishikesh = new TouristSpot("Rishikesh", 30.0868, 78.2676);
+        RoutePlanner planner = new RoutePlanner(List.of(dehradun, rishikesh),
+                List.of(new TouristConnection(dehradun, rishikesh, 43.5)));
+        MapRenderer renderer = new MapRenderer(planner.graph(), () -> { });
+        renderer.setBounds(30.0, 30.5, 78.0, 78.5);
+        int x = (int) renderer.mapX(dehradun.getLongitude(), SIZE, 1);
+        int y = (int) renderer.mapY(dehradun.getLatitude(), SIZE, 1);
+
+        assertEquals(dehradun, awaitPick(renderer, x, y));
+        assertNull(renderer.pick(x + 100, y, SIZE, SIZE, 1, 0, 0));
+
+        GraphChange change = planner.removeSpot(dehradun);
+        renderer.applyChange(change);
+        assertNull(renderer.pick(x, y, SIZE, SIZE, 1, 0, 0));
+    }
+
+    private static TouristSpot awaitPick(MapRenderer renderer, int x, int y) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        TouristSpot picked = null;
+        while (picked == null && System.nanoTime() < deadline) {
+            picked = renderer.pick(x, y, SIZE, SIZE, 1, 0, 0);
+            Thread.sleep(5);
+        }
+        return picked;
+    }
+}
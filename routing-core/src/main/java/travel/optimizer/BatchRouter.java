@@ -0,0 +1,259 @@
+package travel.optimizer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Headless entry point: answers a file of start,end pairs with the same planner the GUI uses, or with
+// --reachable a file of start,budget rows, where several starts can be given separated by semicolons.
+public class BatchRouter {
+    private final RoutePlanner planner;
+    private final Map<String, TouristSpot> spots;
+
+    public BatchRouter(RoutePlanner planner, Map<String, TouristSpot> spots) {
+        this.planner = planner;
+        this.spots = spots;
+    }
+
+    static class Query {
+        final String start;
+        final String end;
+
+        Query(String start, String end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    static class Answer {
+        final Query query;
+        final List<TouristSpot> route;
+        final double distance;
+        final long latencyNanos;
+
+        Answer(Query query, List<TouristSpot> route, double distance, long latencyNanos) {
+            this.query = query;
+            this.route = route;
+            this.distance = distance;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+
+    static class ReachQuery {
+        final List<String> starts;
+        final double budget;
+
+        ReachQuery(List<String> starts, double budget) {
+            this.starts = starts;
+            this.budget = budget;
+        }
+    }
+
+    static class ReachAnswer {
+        final ReachQuery query;
+        final List<Reachability.Reach> reachable;
+        final long latencyNanos;
+
+        ReachAnswer(ReachQuery query, List<Reachability.Reach> reachable, long latencyNanos) {
+            this.query = query;
+            this.reachable = reachable;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+
+    public Answer answer(Query query) {
+        long started = System.nanoTime();
+        TouristSpot start = spots.get(query.start);
+        TouristSpot end = spots.get(query.end);
+        List<TouristSpot> route = start != null && end != null
+                ? planner.findBestPath(start, end) : Collections.emptyList();
+        double distance = route.isEmpty() ? Double.NaN : planner.calculateTotalDistance(route);
+        return new Answer(query, route, distance, System.nanoTime() - started);
+    }
+
+    // Unknown starts are skipped
+    public ReachAnswer reach(ReachQuery query) {
+        long started = System.nanoTime();
+        List<TouristSpot> starts = new ArrayList<>();
+        for (String name : query.starts) {
+            TouristSpot start = spots.get(name);
+            if (start != null) {
+                starts.add(start);
+            }
+        }
+        List<Reachability.Reach> reachable = planner.reachable(starts, query.budget);
+        return new ReachAnswer(query, reachable, System.nanoTime() - started);
+    }
+
+    public List<Answer> answerAll(List<Query> queries, int threads) throws InterruptedException {
+        List<Callable<Answer>> tasks = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            tasks.add(() -> answer(query));
+        }
+        return runAll(tasks, threads);
+    }
+
+    public List<ReachAnswer> reachAll(List<ReachQuery> queries, int threads) throws InterruptedException {
+        List<Callable<ReachAnswer>> tasks = new ArrayList<>(queries.size());
+        for (ReachQuery query : queries) {
+            tasks.add(() -> reach(query));
+        }
+        return runAll(tasks, threads);
+    }
+
+    private static <T> List<T> runAll(List<Callable<T>> tasks, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<T> answers = new ArrayList<>(tasks.size());
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                answers.add(future.get());
+            }
+            return answers;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Route query failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Fields are split like the data files, so names quoted by writeAnswers read back as written
+    static List<Query> readQueries(Path file) throws IOException {
+        List<Query> queries = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(file)) {
+            while (reader.next()) {
+                if (reader.fieldCount() >= 2 && !isHeader(reader)) {
+                    queries.add(new Query(reader.string(0), reader.string(1)));
+                }
+            }
+        }
+        return queries;
+    }
+
+    // Rows with an unreadable budget are reported and skipped rather than failing the whole batch
+    static List<ReachQuery> readReachQueries(Path file) throws IOException {
+        List<ReachQuery> queries = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(file)) {
+            while (reader.next()) {
+                if (reader.fieldCount() < 2 || isHeader(reader)) {
+                    continue;
+                }
+                double budget;
+                try {
+                    budget = reader.parseDouble(1);
+                } catch (NumberFormatException e) {
+                    budget = Double.NaN;
+                }
+                if (!(budget >= 0) || Double.isInfinite(budget)) {
+                    System.err.printf("Skipping %s line %d: bad budget '%s'%n", file, reader.lineNumber(),
+                            reader.string(1));
+                    continue;
+                }
+                List<String> starts = new ArrayList<>();
+                for (String start : reader.string(0).split(";")) {
+                    starts.add(start.trim());
+                }
+                queries.add(new ReachQuery(starts, budget));
+            }
+        }
+        return queries;
+    }
+
+    private static boolean isHeader(CsvReader reader) {
+        return !reader.isQuoted(0) && reader.string(0).equalsIgnoreCase("start");
+    }
+
+    static void writeAnswers(List<Answer> answers, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Start,End,Distance,Route\n"); // CSV Header
+            for (Answer answer : answers) {
+                StringBuilder route = new StringBuilder();
+                for (TouristSpot spot : answer.route) {
+                    route.append(route.length() > 0 ? " > " : "").append(spot.getName());
+                }
+                writer.write(String.format("%s,%s,%s,%s\n", csv(answer.query.start), csv(answer.query.end),
+                        Double.isNaN(answer.distance) ? "" : String.format("%.2f", answer.distance),
+                        csv(route.toString())));
+            }
+        }
+    }
+
+    // One row per reachable spot
+    static void writeReachAnswers(List<ReachAnswer> answers, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Start,Budget,Spot,Distance\n"); // CSV Header
+            for (ReachAnswer answer : answers) {
+                String starts = csv(String.join(";", answer.query.starts));
+                for (Reachability.Reach reach : answer.reachable) {
+                    writer.write(String.format("%s,%.2f,%s,%.2f\n", starts, answer.query.budget,
+                            csv(reach.spot().getName()), reach.distance()));
+                }
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    static void printReport(long[] latencies, long wallNanos, int threads) {
+        Arrays.sort(latencies);
+        System.out.printf("%d queries on %d threads in %.1f ms: %.0f queries/sec, p50 %.1f us, p99 %.1f us%n",
+                latencies.length, threads, wallNanos / 1e6, latencies.length / (wallNanos / 1e9),
+                percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    // Usage: BatchRouter [--reachable] <queries.csv> <routes.csv> [spots.csv] [connections.csv] [threads]
+    public static void main(String[] args) throws Exception {
+        boolean reachable = args.length > 0 && args[0].equals("--reachable");
+        if (reachable) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (args.length < 2) {
+            System.err.println("Usage: java BatchRouter [--reachable] <queries.csv> <routes.csv> [loc.csv] [con2.csv] [threads]");
+            System.exit(2);
+        }
+        RoutingMetrics.register();
+        Path queriesFile = Paths.get(args[0]);
+        Path outputFile = Paths.get(args[1]);
+        Path spotsFile = Paths.get(args.length > 2 ? args[2] : "loc.csv");
+        Path connectionsFile = Paths.get(args.length > 3 ? args[3] : "con2.csv");
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        TravelData data = TravelData.load(new CsvDataSource(spotsFile, connectionsFile));
+        RoutePlanner planner = new RoutePlanner(data.getSpots().values(), data.getConnections());
+        BatchRouter router = new BatchRouter(planner, data.getSpots());
+
+        if (reachable) {
+            List<ReachQuery> queries = readReachQueries(queriesFile);
+            long started = System.nanoTime();
+            List<ReachAnswer> answers = router.reachAll(queries, threads);
+            long wallNanos = System.nanoTime() - started;
+
+            writeReachAnswers(answers, outputFile);
+            printReport(answers.stream().mapToLong(answer -> answer.latencyNanos).toArray(), wallNanos, threads);
+            return;
+        }
+        List<Query> queries = readQueries(queriesFile);
+        long started = System.nanoTime();
+        List<Answer> answers = router.answerAll(queries, threads);
+        long wallNanos = System.nanoTime() - started;
+
+        writeAnswers(answers, outputFile);
+        printReport(answers.stream().mapToLong(answer -> answer.latencyNanos).toArray(), wallNanos, threads);
+    }
+}
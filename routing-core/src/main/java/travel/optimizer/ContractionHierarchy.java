@@ -0,0 +1,617 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Contraction hierarchy over a RouteGraph. Preprocessing contracts spots one at a time, least important first,
+// adding a shortcut between two neighbours wherever the only shortest path between them ran through the
+// contracted spot. A query is then a bidirectional Dijkstra that only climbs to more important spots and
+// settles a few hundred of them even on state-sized graphs; shortcuts are expanded back into the concrete
+// spot sequence at the end.
+//
+// File layout (little endian): magic, version, spot count, upward arc count, graph fingerprint, CRC32C of the
+// body; then ranks, arc offsets, targets, bypassed spots and weights.
+final class ContractionHierarchy {
+    private static final int MAGIC = 0x52544348; // "RTCH"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    // Witness searches give up after settling this many spots and keep the shortcut: a few redundant shortcuts
+    // are far cheaper than exhaustive searches. Priorities are only estimates, so they search less
+    private static final int WITNESS_SETTLE_LIMIT = 1000;
+    private static final int PRIORITY_SETTLE_LIMIT = 50;
+
+    private final RouteGraph graph;
+    private final int[] ranks;
+    // Arcs from each spot to its more important neighbours: [offsets[v], offsets[v + 1])
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] middles; // Spot a shortcut bypasses; -1 for an original connection
+    private final double[] weights;
+    private final SearchPool<Search> searches;
+
+    private ContractionHierarchy(RouteGraph graph, int[] ranks, int[] offsets, int[] targets, int[] middles,
+                                 double[] weights) {
+        this.graph = graph;
+        this.ranks = ranks;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.middles = middles;
+        this.weights = weights;
+        this.searches = new SearchPool<>(() -> new Search(graph.spotCount()));
+    }
+
+    public RouteGraph graph() { return graph; }
+
+    public int shortcutCount() {
+        int shortcuts = 0;
+        for (int middle : middles) {
+            if (middle >= 0) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    // Build time goes to RoutingMetrics under BUILD_HIERARCHY
+    public static ContractionHierarchy build(RouteGraph graph) {
+        long started = System.nanoTime();
+        ContractionHierarchy hierarchy = new Contraction(graph).run();
+        RoutingMetrics.INSTANCE.record(RoutingMetrics.Operation.BUILD_HIERARCHY, started);
+        return hierarchy;
+    }
+
+    // Returns null if the file is missing, corrupt or was built from a different graph
+    public static ContractionHierarchy open(RouteGraph graph, Path file) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) < HEADER_BYTES) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int n = buffer.getInt(8);
+        int arcs = buffer.getInt(12);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || n != graph.spotCount() || arcs < 0
+                || buffer.capacity() != fileSize(n, arcs) || buffer.getLong(16) != graph.fingerprint()
+                || buffer.getLong(24) != checksum(buffer)) {
+            return null;
+        }
+        buffer.position(HEADER_BYTES);
+        int[] ranks = new int[n];
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[arcs];
+        int[] middles = new int[arcs];
+        double[] weights = new double[arcs];
+        for (int[] array : new int[][] {ranks, offsets, targets, middles}) {
+            buffer.asIntBuffer().get(array);
+            buffer.position(buffer.position() + 4 * array.length);
+        }
+        buffer.asDoubleBuffer().get(weights);
+        return new ContractionHierarchy(graph, ranks, offsets, targets, middles, weights);
+    }
+
+    // Written beside the target and moved into place, so readers never see a partial file
+    public void write(Path file) throws IOException {
+        int n = ranks.length;
+        int arcs = targets.length;
+        long size = fileSize(n, arcs);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Contraction hierarchy too large for a single mapping");
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(HEADER_BYTES);
+            for (int[] array : new int[][] {ranks, offsets, targets, middles}) {
+                buffer.asIntBuffer().put(array);
+                buffer.position(buffer.position() + 4 * array.length);
+            }
+            buffer.asDoubleBuffer().put(weights);
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, n);
+            buffer.putInt(12, arcs);
+            buffer.putLong(16, graph.fingerprint());
+            buffer.putLong(24, checksum(buffer));
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ContractionHierarchy openOrBuild(RouteGraph graph, Path file) throws IOException {
+        ContractionHierarchy hierarchy = open(graph, file);
+        if (hierarchy == null) {
+            hierarchy = build(graph);
+            hierarchy.write(file);
+        }
+        return hierarchy;
+    }
+
+    private static long fileSize(int n, int arcs) {
+        return HEADER_BYTES + 4L * n + 4L * (n + 1) + 16L * arcs;
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_BYTES).limit(buffer.capacity());
+        crc.update(body);
+        return crc.getValue();
+    }
+
+    public List<TouristSpot> route(TouristSpot start, TouristSpot end) {
+        int from = graph.idOf(start);
+        int to = graph.idOf(end);
+        int[] path = from >= 0 && to >= 0 ? path(from, to) : null;
+        return path != null ? graph.toSpots(path, path.length) : Collections.emptyList();
+    }
+
+    // Infinite when there is no route
+    public double distance(int from, int to) {
+        Search search = searches.borrow();
+        try {
+            search.run(from, to);
+            return search.best;
+        } finally {
+            search.reset();
+            searches.release(search);
+        }
+    }
+
+    // Spot ids from source to target with every shortcut expanded, or null when the target is unreachable
+    public int[] path(int from, int to) {
+        Search search = searches.borrow();
+        try {
+            search.run(from, to);
+            return search.meeting < 0 ? null : search.unpack(from, to);
+        } finally {
+            search.reset();
+            searches.release(search);
+        }
+    }
+
+    private int arcTo(int from, int to) {
+        for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+            if (targets[e] == to) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("Missing hierarchy arc " + from + " -> " + to);
+    }
+
+    // Pooled query state; arrays are reset through the touched list so a query costs what it visits
+    private final class Search {
+        final double[] forward;
+        final double[] backward;
+        final int[] forwardArc; // Arc that reached the spot, in its less important end's list; -1 at the root
+        final int[] backwardArc;
+        final int[] forwardParent;
+        final int[] backwardParent;
+        final IndexedMinHeap forwardQueue;
+        final IndexedMinHeap backwardQueue;
+        int[] touched = new int[256];
+        int touchedCount;
+        double best;
+        int meeting;
+
+        Search(int n) {
+            forward = new double[n];
+            backward = new double[n];
+            forwardArc = new int[n];
+            backwardArc = new int[n];
+            forwardParent = new int[n];
+            backwardParent = new int[n];
+            Arrays.fill(forward, Double.POSITIVE_INFINITY);
+            Arrays.fill(backward, Double.POSITIVE_INFINITY);
+            forwardQueue = new IndexedMinHeap(n);
+            backwardQueue = new IndexedMinHeap(n);
+        }
+
+        void run(int from, int to) {
+            best = Double.POSITIVE_INFINITY;
+            meeting = -1;
+            reach(from, 0, -1, -1, forward, forwardArc, forwardParent, forwardQueue);
+            reach(to, 0, -1, -1, backward, backwardArc, backwardParent, backwardQueue);
+            int settled = 0;
+            boolean forwardDone = false;
+            boolean backwardDone = false;
+            while (!forwardDone || !backwardDone) {
+                // The direction with the smaller frontier goes next; an empty queue is picked so it gets finished
+                boolean forwardTurn = !forwardDone && (backwardDone || forwardQueue.isEmpty()
+                        || backwardQueue.isEmpty() || forwardQueue.peekKey() <= backwardQueue.peekKey());
+                IndexedMinHeap queue = forwardTurn ? forwardQueue : backwardQueue;
+                if (queue.isEmpty() || queue.peekKey() >= best) {
+                    // Nothing left in this direction can improve on the best meeting point
+                    queue.clear();
+                    if (forwardTurn) {
+                        forwardDone = true;
+                    } else {
+                        backwardDone = true;
+                    }
+                    continue;
+                }
+                settled++;
+                if (forwardTurn) {
+                    settle(queue.poll(), forward, backward, forwardArc, forwardParent, forwardQueue);
+                } else {
+                    settle(queue.poll(), backward, forward, backwardArc, backwardParent, backwardQueue);
+                }
+            }
+            RoutingMetrics.searched(settled);
+        }
+
+        private void settle(int v, double[] distances, double[] opposite, int[] arcs, int[] parents,
+                            IndexedMinHeap queue) {
+            double distance = distances[v];
+            if (distance + opposite[v] < best) {
+                best = distance + opposite[v];
+                meeting = v;
+            }
+            // Stall-on-demand: if a more important neighbour already offers a shorter way here, no shortest
+            // path continues upwards through v
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (distances[targets[e]] + weights[e] < distance) {
+                    return;
+                }
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                double candidate = distance + weights[e];
+                if (candidate < distances[w]) {
+                    reach(w, candidate, e, v, distances, arcs, parents, queue);
+                }
+            }
+        }
+
+        private void reach(int v, double distance, int arc, int parent, double[] distances, int[] arcs,
+                           int[] parents, IndexedMinHeap queue) {
+            if (forward[v] == Double.POSITIVE_INFINITY && backward[v] == Double.POSITIVE_INFINITY) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = v;
+            }
+            distances[v] = distance;
+            arcs[v] = arc;
+            parents[v] = parent;
+            queue.push(v, distance);
+        }
+
+        int[] unpack(int from, int to) {
+            IntStack hops = new IntStack();
+            // Up from the source to the meeting spot, collected backwards
+            for (int v = meeting; v != from; v = forwardParent[v]) {
+                hops.push(forwardParent[v]);
+                hops.push(v);
+                hops.push(forwardArc[v]);
+            }
+            IntStack path = new IntStack();
+            path.push(from);
+            IntStack pending = new IntStack();
+            for (int i = 0; i < hops.size; i += 3) {
+                pending.push(hops.values[i]);
+                pending.push(hops.values[i + 1]);
+                pending.push(hops.values[i + 2]);
+            }
+            // Pending holds the forward hops last-to-first, so popping expands them from the source onwards
+            expand(pending, path);
+            // Down from the meeting spot to the target
+            for (int v = meeting; v != to; v = backwardParent[v]) {
+                pending.push(v);
+                pending.push(backwardParent[v]);
+                pending.push(backwardArc[v]);
+                expand(pending, path);
+            }
+            return Arrays.copyOf(path.values, path.size);
+        }
+
+        // Pops (from, to, arc) hops and appends each hop's spots after from, splitting shortcuts into their two
+        // halves; both halves are arcs of the bypassed spot, which is less important than either end
+        private void expand(IntStack pending, IntStack path) {
+            while (pending.size > 0) {
+                int arc = pending.pop();
+                int to = pending.pop();
+                int from = pending.pop();
+                int middle = middles[arc];
+                if (middle < 0) {
+                    path.push(to);
+                    continue;
+                }
+                pending.push(middle);
+                pending.push(to);
+                pending.push(arcTo(middle, to));
+                pending.push(from);
+                pending.push(middle);
+                pending.push(arcTo(middle, from));
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                forward[v] = Double.POSITIVE_INFINITY;
+                backward[v] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            forwardQueue.clear();
+            backwardQueue.clear();
+        }
+    }
+
+    private static final class IntStack {
+        int[] values = new int[48];
+        int size;
+
+        void push(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+    }
+
+    // Mutable adjacency used while contracting; every connection and shortcut is listed at both ends
+    private static final class Contraction {
+        final RouteGraph graph;
+        final int n;
+        final int[][] neighbours;
+        final int[][] middles;
+        final double[][] weights;
+        final int[] degrees;
+        final boolean[] contracted;
+        final int[] contractedNeighbours;
+        final int[] ranks;
+
+        // Witness search state, reset through the touched list
+        final double[] distances;
+        final int[] targetStamps;
+        int stamp;
+        final IndexedMinHeap queue;
+        int[] touched = new int[64];
+        int touchedCount;
+
+        Contraction(RouteGraph graph) {
+            this.graph = graph;
+            n = graph.spotCount();
+            neighbours = new int[n][];
+            middles = new int[n][];
+            weights = new double[n][];
+            degrees = new int[n];
+            contracted = new boolean[n];
+            contractedNeighbours = new int[n];
+            ranks = new int[n];
+            distances = new double[n];
+            targetStamps = new int[n];
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                int degree = graph.endEdge(v) - graph.firstEdge(v);
+                neighbours[v] = new int[Math.max(degree, 2)];
+                middles[v] = new int[Math.max(degree, 2)];
+                weights[v] = new double[Math.max(degree, 2)];
+            }
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                    int w = graph.target(e);
+                    if (w != v) {
+                        connect(v, w, graph.weight(e), -1);
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy run() {
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                order.push(v, priority(v));
+            }
+            int rank = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                // Lazy updates only: priorities drift as neighbours are contracted, so each is recomputed when it
+                // surfaces and requeued if it is no longer the smallest. Recomputing every neighbour's priority
+                // after each contraction costs several times more and barely changes the order
+                int priority = priority(v);
+                if (!order.isEmpty() && priority > order.peekKey()) {
+                    order.push(v, priority);
+                    continue;
+                }
+                shortcuts(v, WITNESS_SETTLE_LIMIT, true);
+                contracted[v] = true;
+                ranks[v] = rank++;
+                for (int i = 0; i < degrees[v]; i++) {
+                    int u = neighbours[v][i];
+                    if (!contracted[u]) {
+                        // The arc down to v is not part of the upward graph, so it stops slowing the searches
+                        disconnect(u, v);
+                        contractedNeighbours[u]++;
+                    }
+                }
+            }
+            return upwardGraph();
+        }
+
+        // Edge difference, weighted double so sparse spots go first, plus contracted neighbours, which spreads
+        // contraction evenly over the map
+        private int priority(int v) {
+            return 2 * (shortcuts(v, PRIORITY_SETTLE_LIMIT, false) - liveDegree(v)) + contractedNeighbours[v];
+        }
+
+        private int liveDegree(int v) {
+            int live = 0;
+            for (int i = 0; i < degrees[v]; i++) {
+                if (!contracted[neighbours[v][i]]) {
+                    live++;
+                }
+            }
+            return live;
+        }
+
+        // Counts, and with add creates, the shortcuts contracting v needs
+        private int shortcuts(int v, int settleLimit, boolean add) {
+            int degree = degrees[v];
+            int[] around = new int[degree];
+            double[] via = new double[degree];
+            int count = 0;
+            for (int i = 0; i < degree; i++) {
+                if (!contracted[neighbours[v][i]]) {
+                    around[count] = neighbours[v][i];
+                    via[count++] = weights[v][i];
+                }
+            }
+            int shortcuts = 0;
+            for (int i = 0; i < count - 1; i++) {
+                double limit = 0;
+                for (int j = i + 1; j < count; j++) {
+                    limit = Math.max(limit, via[i] + via[j]);
+                }
+                witnessSearch(around[i], v, around, i + 1, count, limit, settleLimit);
+                for (int j = i + 1; j < count; j++) {
+                    double through = via[i] + via[j];
+                    if (distances[around[j]] > through) {
+                        shortcuts++;
+                        if (add) {
+                            connect(around[i], around[j], through, v);
+                            connect(around[j], around[i], through, v);
+                        }
+                    }
+                }
+                clearWitnessSearch();
+            }
+            return shortcuts;
+        }
+
+        // Dijkstra from source over uncontracted spots other than excluded, until targets[from, to) are all
+        // settled, the distance passes limit or settleLimit spots are settled
+        private void witnessSearch(int source, int excluded, int[] targets, int from, int to, double limit,
+                                   int settleLimit) {
+            stamp++;
+            for (int j = from; j < to; j++) {
+                targetStamps[targets[j]] = stamp;
+            }
+            int remaining = to - from;
+            touch(source, 0);
+            queue.push(source, 0);
+            for (int settled = 0; !queue.isEmpty() && settled < settleLimit; settled++) {
+                if (queue.peekKey() > limit) {
+                    break;
+                }
+                int u = queue.poll();
+                if (targetStamps[u] == stamp && --remaining == 0) {
+                    break;
+                }
+                double distance = distances[u];
+                for (int i = 0; i < degrees[u]; i++) {
+                    int w = neighbours[u][i];
+                    if (w == excluded || contracted[w]) {
+                        continue;
+                    }
+                    double candidate = distance + weights[u][i];
+                    if (candidate < distances[w]) {
+                        touch(w, candidate);
+                        queue.push(w, candidate);
+                    }
+                }
+            }
+            queue.clear();
+        }
+
+        private void touch(int v, double distance) {
+            if (distances[v] == Double.POSITIVE_INFINITY) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = v;
+            }
+            distances[v] = distance;
+        }
+
+        private void clearWitnessSearch() {
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+        }
+
+        private void disconnect(int v, int w) {
+            for (int i = 0; i < degrees[v]; i++) {
+                if (neighbours[v][i] == w) {
+                    int last = --degrees[v];
+                    neighbours[v][i] = neighbours[v][last];
+                    middles[v][i] = middles[v][last];
+                    weights[v][i] = weights[v][last];
+                    return;
+                }
+            }
+        }
+
+        // Adds the arc v -> w, or shortens the existing one
+        private void connect(int v, int w, double weight, int middle) {
+            for (int i = 0; i < degrees[v]; i++) {
+                if (neighbours[v][i] == w) {
+                    if (weight < weights[v][i]) {
+                        weights[v][i] = weight;
+                        middles[v][i] = middle;
+                    }
+                    return;
+                }
+            }
+            int i = degrees[v]++;
+            if (i == neighbours[v].length) {
+                neighbours[v] = Arrays.copyOf(neighbours[v], i * 2);
+                middles[v] = Arrays.copyOf(middles[v], i * 2);
+                weights[v] = Arrays.copyOf(weights[v], i * 2);
+            }
+            neighbours[v][i] = w;
+            middles[v][i] = middle;
+            weights[v][i] = weight;
+        }
+
+        private ContractionHierarchy upwardGraph() {
+            int[] offsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                int up = 0;
+                for (int i = 0; i < degrees[v]; i++) {
+                    if (ranks[neighbours[v][i]] > ranks[v]) {
+                        up++;
+                    }
+                }
+                offsets[v + 1] = offsets[v] + up;
+            }
+            int arcs = offsets[n];
+            int[] targets = new int[arcs];
+            int[] arcMiddles = new int[arcs];
+            double[] arcWeights = new double[arcs];
+            for (int v = 0; v < n; v++) {
+                int e = offsets[v];
+                for (int i = 0; i < degrees[v]; i++) {
+                    if (ranks[neighbours[v][i]] > ranks[v]) {
+                        targets[e] = neighbours[v][i];
+                        arcMiddles[e] = middles[v][i];
+                        arcWeights[e] = weights[v][i];
+                        e++;
+                    }
+                }
+            }
+            return new ContractionHierarchy(graph, ranks, offsets, targets, arcMiddles, arcWeights);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Reads the Name,Latitude,Longitude and Source,Target,Distance exports (loc.csv, con2.csv) with the
+// streaming CsvReader. Repeated connections collapse to their shortest distance.
+class CsvDataSource implements TravelDataSource {
+    private final Path spotsFile;
+    private final Path connectionsFile;
+
+    public CsvDataSource(Path spotsFile, Path connectionsFile) {
+        this.spotsFile = spotsFile;
+        this.connectionsFile = connectionsFile;
+    }
+
+    @Override
+    public Map<String, TouristSpot> loadSpots() throws IOException {
+        Map<String, TouristSpot> spots = new LinkedHashMap<>();
+        try (CsvReader reader = new CsvReader(spotsFile)) {
+            reader.next(); // Skip header
+            while (reader.next()) {
+                if (reader.fieldCount() >= 3) {
+                    String name = reader.string(0);
+                    spots.put(name, new TouristSpot(name, reader.parseDouble(1), reader.parseDouble(2)));
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed coordinates in " + spotsFile + ": " + e.getMessage(), e);
+        }
+        return spots;
+    }
+
+    @Override
+    public List<TouristConnection> loadConnections(Map<String, TouristSpot> spots) throws IOException {
+        return readConnections().resolve(spots);
+    }
+
+    // The connections file does not need the spots until the very end, so both files are read in parallel
+    @Override
+    public TravelData load() throws IOException {
+        CompletableFuture<Map<String, TouristSpot>> spots = CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadSpots();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        ParsedConnections connections = readConnections();
+        try {
+            Map<String, TouristSpot> loaded = spots.join();
+            return new TravelData(loaded, connections.resolve(loaded));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    private ParsedConnections readConnections() throws IOException {
+        // Presize from the file length (rows are rarely shorter than ~24 bytes) so the tables never rehash
+        int expectedRows = (int) Math.min(Integer.MAX_VALUE / 4, Files.size(connectionsFile) / 24 + 16);
+        ParsedConnections parsed = new ParsedConnections(expectedRows);
+        try (CsvReader reader = new CsvReader(connectionsFile)) {
+            reader.next(); // Skip header
+            while (reader.next()) {
+                if (reader.fieldCount() >= 3) {
+                    int source = parsed.intern(reader, 0);
+                    int target = parsed.intern(reader, 1);
+                    parsed.distances.putMin(source, target, reader.parseDouble(2));
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed distance in " + connectionsFile + ": " + e.getMessage(), e);
+        }
+        return parsed;
+    }
+
+    // Changes whenever either export is rewritten
+    @Override
+    public long stamp() throws IOException {
+        long stamp = 17;
+        for (Path file : new Path[] {spotsFile, connectionsFile}) {
+            stamp = stamp * 31 + Files.size(file);
+            stamp = stamp * 31 + Files.getLastModifiedTime(file).toMillis();
+        }
+        return stamp;
+    }
+
+    @Override
+    public String toString() {
+        return spotsFile + " + " + connectionsFile;
+    }
+
+    // Connections keyed by locally interned names; only the distinct names are ever turned into Strings
+    private static class ParsedConnections {
+        final EdgeWeightIndex distances;
+        private final List<String> names = new ArrayList<>();
+        private int[] table; // Pairs of (name id + 1, hash); id 0 marks an empty slot
+        private int mask;
+
+        ParsedConnections(int expectedRows) {
+            distances = new EdgeWeightIndex(expectedRows);
+            int capacity = Integer.highestOneBit(Math.max(16, expectedRows) - 1) << 1;
+            table = new int[2 * capacity];
+            mask = capacity - 1;
+        }
+
+        int intern(CsvReader reader, int field) {
+            boolean quoted = reader.isQuoted(field);
+            String quotedName = quoted ? reader.string(field) : null;
+            int hash = quoted ? quotedName.hashCode() : reader.hash(field);
+            for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+                int id = table[2 * slot] - 1;
+                if (id < 0) {
+                    id = names.size();
+                    names.add(quoted ? quotedName : reader.string(field));
+                    table[2 * slot] = id + 1;
+                    table[2 * slot + 1] = hash;
+                    if (names.size() * 2 > mask + 1) {
+                        rehash();
+                    }
+                    return id;
+                }
+                if (table[2 * slot + 1] == hash && (quoted ? names.get(id).equals(quotedName)
+                        : reader.fieldEquals(field, names.get(id)))) {
+                    return id;
+                }
+            }
+        }
+
+        // Names like "Spot 1", "Spot 2" have clustered String hashes, so spread them before probing
+        private static int mix(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x85ebca6b;
+            hash ^= hash >>> 13;
+            hash *= 0xc2b2ae35;
+            return hash ^ (hash >>> 16);
+        }
+
+        private void rehash() {
+            int[] old = table;
+            table = new int[old.length * 2];
+            mask = old.length - 1;
+            for (int i = 0; i < old.length; i += 2) {
+                if (old[i] != 0) {
+                    int slot = mix(old[i + 1]) & mask;
+                    while (table[2 * slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[2 * slot] = old[i];
+                    table[2 * slot + 1] = old[i + 1];
+                }
+            }
+        }
+
+        List<TouristConnection> resolve(Map<String, TouristSpot> spots) {
+            TouristSpot[] byId = new TouristSpot[names.size()];
+            for (int i = 0; i < byId.length; i++) {
+                byId[i] = spots.get(names.get(i));
+            }
+            List<TouristConnection> connections = new ArrayList<>(distances.size());
+            distances.forEach((a, b, distance) -> {
+                if (byId[a] != null && byId[b] != null) {
+                    connections.add(new TouristConnection(byId[a], byId[b], distance));
+                }
+            });
+            return connections;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Streaming CSV record reader over a FileChannel. The byte and char buffers are reused for the whole file
+// and fields are exposed as ranges of the char buffer, so callers only allocate what they keep.
+final class CsvReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private boolean endOfInput;
+    private boolean drained; // Every byte decoded and the decoder flushed
+
+    private int[] fieldStarts = new int[8];
+    private int[] fieldEnds = new int[8];
+    private boolean[] fieldQuoted = new boolean[8];
+    private int fieldCount;
+    private long lineNumber;
+
+    public CsvReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        chars.flip(); // Empty, in read mode
+    }
+
+    public long lineNumber() { return lineNumber; }
+    public int fieldCount() { return fieldCount; }
+
+    // Advances to the next non-empty record; false at end of file
+    public boolean next() throws IOException {
+        while (true) {
+            int end = findRecordEnd();
+            if (end < 0) {
+                return false;
+            }
+            lineNumber++;
+            int start = chars.position();
+            chars.position(Math.min(end + 1, chars.limit()));
+            splitFields(start, end);
+            if (fieldCount > 1 || fieldEnds[0] > fieldStarts[0]) {
+                return true;
+            }
+        }
+    }
+
+    public String string(int field) {
+        char[] data = chars.array();
+        if (!fieldQuoted[field]) {
+            return new String(data, fieldStarts[field], fieldEnds[field] - fieldStarts[field]);
+        }
+        StringBuilder value = new StringBuilder(fieldEnds[field] - fieldStarts[field]);
+        for (int i = fieldStarts[field]; i < fieldEnds[field]; i++) {
+            value.append(data[i]);
+            if (data[i] == '"') {
+                i++; // Doubled quote
+            }
+        }
+        return value.toString();
+    }
+
+    // Hash of a field's characters, equal to String.hashCode() of string(field) for unquoted fields
+    public int hash(int field) {
+        char[] data = chars.array();
+        int h = 0;
+        for (int i = fieldStarts[field]; i < fieldEnds[field]; i++) {
+            h = 31 * h + data[i];
+        }
+        return h;
+    }
+
+    public boolean fieldEquals(int field, String value) {
+        if (fieldQuoted[field]) {
+            return string(field).equals(value);
+        }
+        int length = fieldEnds[field] - fieldStarts[field];
+        if (length != value.length()) {
+            return false;
+        }
+        char[] data = chars.array();
+        for (int i = 0; i < length; i++) {
+            if (data[fieldStarts[field] + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isQuoted(int field) { return fieldQuoted[field]; }
+
+    // Plain decimals are parsed in place; anything else (exponents, long mantissas) goes through Double
+    public double parseDouble(int field) {
+        char[] data = chars.array();
+        int i = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean negative = false;
+        if (i < end && (data[i] == '-' || data[i] == '+')) {
+            negative = data[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = -1;
+        boolean sawDigit = false;
+        for (; i < end; i++) {
+            char c = data[i];
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+                // Up to 15 significant digits and 22 decimals both mantissa and power of ten are exact,
+                // so one division gives the correctly rounded result, same as Double.parseDouble
+                if (mantissa != 0 || c != '0') {
+                    significantDigits++;
+                }
+                if (significantDigits > 15 || fractionDigits >= POWERS_OF_TEN.length) {
+                    return Double.parseDouble(string(field));
+                }
+                mantissa = mantissa * 10 + (c - '0');
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return Double.parseDouble(string(field));
+            }
+        }
+        if (!sawDigit) {
+            throw new NumberFormatException("Not a number on line " + lineNumber + ": '" + string(field) + "'");
+        }
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private void splitFields(int start, int end) {
+        char[] data = chars.array();
+        fieldCount = 0;
+        int i = start;
+        while (true) {
+            ensureFieldCapacity();
+            while (i < end && (data[i] == ' ' || data[i] == '\t')) {
+                i++;
+            }
+            int fieldStart = i;
+            int fieldEnd;
+            boolean quoted = i < end && data[i] == '"';
+            if (quoted) {
+                fieldStart = ++i;
+                while (i < end && !(data[i] == '"' && (i + 1 >= end || data[i + 1] != '"'))) {
+                    i += data[i] == '"' ? 2 : 1;
+                }
+                fieldEnd = i;
+                while (i < end && data[i] != ',') {
+                    i++;
+                }
+            } else {
+                while (i < end && data[i] != ',') {
+                    i++;
+                }
+                fieldEnd = i;
+                while (fieldEnd > fieldStart && Character.isWhitespace(data[fieldEnd - 1])) {
+                    fieldEnd--;
+                }
+            }
+            fieldStarts[fieldCount] = fieldStart;
+            fieldEnds[fieldCount] = fieldEnd;
+            fieldQuoted[fieldCount] = quoted;
+            fieldCount++;
+            if (i >= end) {
+                return;
+            }
+            i++; // Skip the comma
+        }
+    }
+
+    private void ensureFieldCapacity() {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, fieldCount * 2);
+        }
+    }
+
+    // Index of the newline ending the next record (or the limit for a final unterminated one); -1 at EOF.
+    // Newlines inside quoted fields do not end a record.
+    private int findRecordEnd() throws IOException {
+        while (true) {
+            boolean inQuotes = false;
+            char[] data = chars.array();
+            for (int i = chars.position(); i < chars.limit(); i++) {
+                char c = data[i];
+                if (c == '"') {
+                    inQuotes = !inQuotes;
+                } else if (c == '\n' && !inQuotes) {
+                    return i;
+                }
+            }
+            if (drained) {
+                return chars.hasRemaining() ? chars.limit() : -1;
+            }
+            refill();
+        }
+    }
+
+    // Moves the unread tail to the front of the char buffer and decodes more input after it. The decoder can
+    // stop on a full char buffer with bytes still left, also after the channel is exhausted, so input only
+    // counts as drained once a final decode underflows and the flush fits.
+    private void refill() throws IOException {
+        chars.compact();
+        if (!chars.hasRemaining()) {
+            CharBuffer larger = CharBuffer.allocate(chars.capacity() * 2);
+            chars.flip();
+            larger.put(chars);
+            chars = larger;
+        }
+        while (chars.hasRemaining() && !drained) {
+            if (!endOfInput && channel.read(bytes) < 0) {
+                endOfInput = true;
+            }
+            bytes.flip();
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            bytes.compact();
+            if (result.isOverflow()) {
+                break;
+            }
+            if (endOfInput) {
+                if (decoder.flush(chars).isOverflow()) {
+                    break;
+                }
+                drained = true;
+            }
+        }
+        chars.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,21 @@
+package travel.optimizer;
+
+import jdk.jfr.*;
+
+// One load of spots and connections from a TravelDataSource, recorded through RoutingMetrics.
+@Name("travel.optimizer.DataLoad")
+@Label("Data Load")
+@Category("Travel Optimizer")
+@StackTrace(false)
+class DataLoadEvent extends Event {
+    @Label("Source")
+    String source;
+
+    @Label("Spots")
+    int spots;
+
+    @Label("Connections")
+    int connections;
+
+    transient long startNanos;
+}
@@ -0,0 +1,251 @@
+package travel.optimizer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Loads spots and connections from the MySQL schema over one connection, streaming both tables with a
+// cursor fetch. Connections are resolved by spot id rather than by joining the spot names back in, and
+// the CSV export (loc.csv, con.csv) is written by a background thread once the rows are in memory.
+class DatabaseDataSource implements TravelDataSource {
+    static final int FETCH_SIZE = 10_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Path exportDirectory;
+    private volatile CompletableFuture<Void> export = CompletableFuture.completedFuture(null);
+
+    public DatabaseDataSource() {
+        // useCursorFetch makes MySQL honour the fetch size instead of buffering the whole result
+        this("jdbc:mysql://localhost:3306/minor?useCursorFetch=true", "root", "user", Paths.get("")); // Update with your database settings
+    }
+
+    public DatabaseDataSource(String url, String user, String password) {
+        this(url, user, password, Paths.get(""));
+    }
+
+    // exportDirectory may be null to skip the CSV export
+    public DatabaseDataSource(String url, String user, String password, Path exportDirectory) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.exportDirectory = exportDirectory;
+    }
+
+    @Override
+    public TravelData load() throws IOException, SQLException {
+        try (java.sql.Connection conn = connect()) {
+            SpotIndex index = readSpots(conn);
+            List<TouristConnection> connections = readConnections(conn, index);
+            exportAsync(index.spots, connections);
+            return new TravelData(index.spots, connections);
+        }
+    }
+
+    @Override
+    public Map<String, TouristSpot> loadSpots() throws IOException, SQLException {
+        try (java.sql.Connection conn = connect()) {
+            Map<String, TouristSpot> spots = readSpots(conn).spots;
+            exportAsync(spots, null);
+            return spots;
+        }
+    }
+
+    @Override
+    public List<TouristConnection> loadConnections(Map<String, TouristSpot> spots) throws IOException, SQLException {
+        try (java.sql.Connection conn = connect()) {
+            List<TouristConnection> connections = readConnections(conn, readSpotIds(conn, spots));
+            exportAsync(null, connections);
+            return connections;
+        }
+    }
+
+    // Completes once the CSV export started by the last load has been written
+    public CompletableFuture<Void> exportCompletion() {
+        return export;
+    }
+
+    private java.sql.Connection connect() throws SQLException {
+        java.sql.Connection conn = DriverManager.getConnection(url, user, password);
+        conn.setReadOnly(true);
+        // Cursor fetches only stream inside a transaction on some drivers
+        conn.setAutoCommit(false);
+        return conn;
+    }
+
+    private static Statement streamingStatement(java.sql.Connection conn) throws SQLException {
+        Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(FETCH_SIZE);
+        return stmt;
+    }
+
+    private static SpotIndex readSpots(java.sql.Connection conn) throws SQLException {
+        SpotIndex index = new SpotIndex(new LinkedHashMap<>());
+        try (Statement stmt = streamingStatement(conn);
+             ResultSet rs = stmt.executeQuery("SELECT id, name, latitude, longitude FROM TouristSpots")) {
+            while (rs.next()) {
+                String name = rs.getString(2);
+                TouristSpot spot = new TouristSpot(name, rs.getDouble(3), rs.getDouble(4));
+                index.spots.put(name, spot);
+                index.add(rs.getInt(1), spot);
+            }
+        }
+        return index;
+    }
+
+    // Ids for spots loaded elsewhere; rows whose names are not in spots are left out
+    private static SpotIndex readSpotIds(java.sql.Connection conn, Map<String, TouristSpot> spots) throws SQLException {
+        SpotIndex index = new SpotIndex(spots);
+        try (Statement stmt = streamingStatement(conn);
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM TouristSpots")) {
+            while (rs.next()) {
+                TouristSpot spot = spots.get(rs.getString(2));
+                if (spot != null) {
+                    index.add(rs.getInt(1), spot);
+                }
+            }
+        }
+        return index;
+    }
+
+    private static List<TouristConnection> readConnections(java.sql.Connection conn, SpotIndex index) throws SQLException {
+        List<TouristConnection> connections = new ArrayList<>();
+        try (Statement stmt = streamingStatement(conn);
+             ResultSet rs = stmt.executeQuery("SELECT source_id, target_id, distance FROM Connections")) {
+            while (rs.next()) {
+                TouristSpot source = index.get(rs.getInt(1));
+                TouristSpot target = index.get(rs.getInt(2));
+                if (source != null && target != null) {
+                    connections.add(new TouristConnection(source, target, rs.getDouble(3)));
+                }
+            }
+        }
+        return connections;
+    }
+
+    // Either argument may be null when only one table was loaded
+    private void exportAsync(Map<String, TouristSpot> spots, List<TouristConnection> connections) {
+        if (exportDirectory == null) {
+            return;
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        export = done;
+        // Not a daemon, so a headless run still finishes the export before the JVM exits
+        Thread.ofPlatform().name("csv-export").start(() -> {
+            try {
+                if (spots != null) {
+                    exportSpots(spots.values(), exportDirectory.resolve("loc.csv"));
+                }
+                if (connections != null) {
+                    exportConnections(connections, exportDirectory.resolve("con.csv"));
+                }
+                done.complete(null);
+            } catch (Throwable e) {
+                System.err.println("CSV export failed: " + e);
+                done.completeExceptionally(e);
+            }
+        });
+    }
+
+    private static void exportSpots(Collection<TouristSpot> spots, Path file) throws IOException {
+        Path temporary = temporaryBeside(file);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                StringBuilder line = new StringBuilder(64);
+                writer.write("Name,Latitude,Longitude\n"); // CSV Header
+                for (TouristSpot spot : spots) {
+                    line.setLength(0);
+                    appendField(line, spot.getName()).append(',')
+                            .append(spot.getLatitude()).append(',').append(spot.getLongitude()).append('\n');
+                    writer.append(line);
+                }
+            }
+            // Readers of the export (the offline fallback) never see a half-written file
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void exportConnections(List<TouristConnection> connections, Path file) throws IOException {
+        Path temporary = temporaryBeside(file);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                StringBuilder line = new StringBuilder(96);
+                writer.write("Source,Target,Distance\n"); // CSV Header
+                for (TouristConnection conn : connections) {
+                    line.setLength(0);
+                    appendField(line, conn.getStart().getName()).append(',');
+                    appendField(line, conn.getEnd().getName()).append(',').append(conn.getDistance()).append('\n');
+                    writer.append(line);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // A fresh name per export, so overlapping exports never write into each other's file
+    private static Path temporaryBeside(Path file) throws IOException {
+        return Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".tmp");
+    }
+
+    private static StringBuilder appendField(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+
+    // Spot lookup by database id: a plain array while ids are reasonably dense, a map otherwise
+    private static class SpotIndex {
+        final Map<String, TouristSpot> spots;
+        private TouristSpot[] byId = new TouristSpot[1024];
+        private Map<Integer, TouristSpot> sparse;
+
+        SpotIndex(Map<String, TouristSpot> spots) {
+            this.spots = spots;
+        }
+
+        void add(int id, TouristSpot spot) {
+            if (sparse == null && id >= 0 && id < Math.max(1024, spots.size() * 4L)) {
+                if (id >= byId.length) {
+                    byId = Arrays.copyOf(byId, Math.max(id + 1, byId.length * 2));
+                }
+                byId[id] = spot;
+                return;
+            }
+            if (sparse == null) {
+                sparse = new HashMap<>();
+                for (int i = 0; i < byId.length; i++) {
+                    if (byId[i] != null) {
+                        sparse.put(i, byId[i]);
+                    }
+                }
+                byId = null;
+            }
+            sparse.put(id, spot);
+        }
+
+        TouristSpot get(int id) {
+            if (sparse != null) {
+                return sparse.get(id);
+            }
+            return id >= 0 && id < byId.length ? byId[id] : null;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// All-pairs distances and next hops, precomputed with one Dijkstra per spot and memory-mapped from disk.
+final class DistanceMatrix {
+    private static final int MAGIC = 0x52544D58; // "RTMX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private final RouteGraph graph;
+    private final MappedByteBuffer buffer;
+    private final int n;
+    private final long distanceOffset;
+    private final long nextHopOffset;
+
+    private DistanceMatrix(RouteGraph graph, MappedByteBuffer buffer) {
+        this.graph = graph;
+        this.buffer = buffer;
+        this.n = graph.spotCount();
+        this.distanceOffset = HEADER_BYTES;
+        this.nextHopOffset = HEADER_BYTES + 8L * n * n;
+    }
+
+    // Runs Dijkstra from every spot in parallel and writes the matrices straight into the mapped file. The time
+    // taken is recorded as PRECOMPUTE_MATRIX in RoutingMetrics.
+    public static DistanceMatrix precompute(RouteGraph graph, Path file) throws IOException {
+        long started = System.nanoTime();
+        int n = graph.spotCount();
+        long size = fileSize(n);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Distance matrix for " + n + " spots does not fit in a single mapping");
+        }
+
+        // Built beside the target and moved over it, so a matrix still mapped from the old file (e.g. by queries on
+        // a graph version that was just replaced) never sees it truncated
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        // Row t holds the tree rooted at t: the predecessor of s is its next hop towards t
+        IntStream.range(0, n).parallel().forEach(t -> {
+            double[] distances = new double[n];
+            int[] previous = new int[n];
+            engine.shortestPathTree(t, distances, previous);
+            ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            int distanceRow = HEADER_BYTES + 8 * t * n;
+            int nextHopRow = HEADER_BYTES + 8 * n * n + 4 * t * n;
+            for (int s = 0; s < n; s++) {
+                view.putDouble(distanceRow + 8 * s, distances[s]);
+                view.putInt(nextHopRow + 4 * s, previous[s]);
+            }
+        });
+
+        // Header goes last so a half-written file is never mistaken for a valid one
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, n);
+        buffer.putInt(12, 0);
+        buffer.putLong(16, graph.fingerprint());
+        buffer.force();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        RoutingMetrics.INSTANCE.record(RoutingMetrics.Operation.PRECOMPUTE_MATRIX, started);
+        return new DistanceMatrix(graph, buffer);
+    }
+
+    // Maps an existing file, or returns null if it is missing or was built from a different graph
+    public static DistanceMatrix open(RouteGraph graph, Path file) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != fileSize(graph.spotCount())) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != graph.spotCount() || buffer.getLong(16) != graph.fingerprint()) {
+            return null;
+        }
+        return new DistanceMatrix(graph, buffer);
+    }
+
+    public static DistanceMatrix openOrPrecompute(RouteGraph graph, Path file) throws IOException {
+        DistanceMatrix matrix = open(graph, file);
+        return matrix != null ? matrix : precompute(graph, file);
+    }
+
+    private static long fileSize(int n) {
+        return HEADER_BYTES + 12L * n * n;
+    }
+
+    public RouteGraph graph() { return graph; }
+
+    // Infinite when there is no route
+    public double distance(int from, int to) {
+        return buffer.getDouble((int) (distanceOffset + 8L * ((long) to * n + from)));
+    }
+
+    private int nextHop(int from, int to) {
+        return buffer.getInt((int) (nextHopOffset + 4L * ((long) to * n + from)));
+    }
+
+    // Walks the next-hop chain; returns null when the target is unreachable
+    public int[] path(int from, int to) {
+        if (Double.isInfinite(distance(from, to))) {
+            return null;
+        }
+        int[] path = new int[n];
+        int length = 0;
+        for (int v = from; v != to; v = nextHop(v, to)) {
+            path[length++] = v;
+        }
+        path[length++] = to;
+        return Arrays.copyOf(path, length);
+    }
+
+    public List<TouristSpot> route(TouristSpot start, TouristSpot end) {
+        int from = graph.idOf(start);
+        int to = graph.idOf(end);
+        int[] path = from >= 0 && to >= 0 ? path(from, to) : null;
+        return path != null ? graph.toSpots(path, path.length) : Collections.emptyList();
+    }
+
+    public long fileBytes() {
+        return fileSize(n);
+    }
+}
@@ -0,0 +1,145 @@
+package travel.optimizer;
+
+// Open-addressing map from an undirected spot-id pair to its shortest recorded distance.
+// Keys and distance bits are interleaved in one array so a lookup touches a single cache line.
+final class EdgeWeightIndex {
+    private static final long EMPTY = -1L;
+
+    interface EdgeConsumer {
+        void accept(int a, int b, double distance);
+    }
+
+    private long[] table;
+    private int size;
+    private int mask;
+
+    public EdgeWeightIndex(int expectedEdges) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedEdges * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private EdgeWeightIndex(EdgeWeightIndex other) {
+        table = other.table.clone();
+        size = other.size;
+        mask = other.mask;
+    }
+
+    // Keeps the minimum when the same pair is recorded more than once
+    public void putMin(int a, int b, double distance) {
+        long key = pack(a, b);
+        int slot = slotOf(key);
+        if (table[2 * slot] == key) {
+            double current = Double.longBitsToDouble(table[2 * slot + 1]);
+            if (distance < current) {
+                table[2 * slot + 1] = Double.doubleToRawLongBits(distance);
+            }
+            return;
+        }
+        table[2 * slot] = key;
+        table[2 * slot + 1] = Double.doubleToRawLongBits(distance);
+        if (++size * 2 > capacity()) {
+            rehash();
+        }
+    }
+
+    // Overwrites any recorded distance
+    public void put(int a, int b, double distance) {
+        long key = pack(a, b);
+        int slot = slotOf(key);
+        boolean added = table[2 * slot] != key;
+        table[2 * slot] = key;
+        table[2 * slot + 1] = Double.doubleToRawLongBits(distance);
+        if (added && ++size * 2 > capacity()) {
+            rehash();
+        }
+    }
+
+    // Backward-shift deletion, so probe chains stay intact without tombstones
+    public void remove(int a, int b) {
+        long key = pack(a, b);
+        int slot = slotOf(key);
+        if (table[2 * slot] != key) {
+            return;
+        }
+        size--;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[2 * next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(table[2 * next]) & mask;
+            // Move the entry back unless its home slot lies cyclically in (hole, next]
+            boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!stays) {
+                table[2 * hole] = table[2 * next];
+                table[2 * hole + 1] = table[2 * next + 1];
+                hole = next;
+            }
+        }
+        table[2 * hole] = EMPTY;
+    }
+
+    // Independent copy for copy-on-write graph updates
+    public EdgeWeightIndex copy() {
+        return new EdgeWeightIndex(this);
+    }
+
+    // Returns NaN when the two spots are not directly connected
+    public double get(int a, int b) {
+        long key = pack(a, b);
+        int slot = slotOf(key);
+        return table[2 * slot] == key ? Double.longBitsToDouble(table[2 * slot + 1]) : Double.NaN;
+    }
+
+    public int size() { return size; }
+
+    public void forEach(EdgeConsumer consumer) {
+        for (int i = 0; i < table.length; i += 2) {
+            long key = table[i];
+            if (key != EMPTY) {
+                consumer.accept((int) (key >>> 32), (int) key, Double.longBitsToDouble(table[i + 1]));
+            }
+        }
+    }
+
+    private int capacity() { return table.length / 2; }
+
+    private static long pack(int a, int b) {
+        int low = Math.min(a, b);
+        int high = Math.max(a, b);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+
+    // Linear probing; returns the slot holding the key or the empty slot where it belongs
+    private int slotOf(long key) {
+        int slot = mix(key) & mask;
+        while (table[2 * slot] != EMPTY && table[2 * slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private void allocate(int capacity) {
+        table = new long[2 * capacity];
+        for (int i = 0; i < table.length; i += 2) {
+            table[i] = EMPTY;
+        }
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        long[] old = table;
+        allocate(capacity() * 2);
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != EMPTY) {
+                int slot = slotOf(old[i]);
+                table[2 * slot] = old[i];
+                table[2 * slot + 1] = old[i + 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// Uses the primary source (the database) and falls back to another (the CSV export) when it is unavailable.
+class FallbackDataSource implements TravelDataSource {
+    private final TravelDataSource primary;
+    private final TravelDataSource fallback;
+    private TravelDataSource active;
+
+    public FallbackDataSource(TravelDataSource primary, TravelDataSource fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+        this.active = primary;
+    }
+
+    @Override
+    public Map<String, TouristSpot> loadSpots() throws IOException, SQLException {
+        try {
+            active = primary;
+            return primary.loadSpots();
+        } catch (IOException | SQLException e) {
+            reportFallback(e);
+            active = fallback;
+            return fallback.loadSpots();
+        }
+    }
+
+    // Reads from whichever source supplied the spots
+    @Override
+    public List<TouristConnection> loadConnections(Map<String, TouristSpot> spots) throws IOException, SQLException {
+        return active.loadConnections(spots);
+    }
+
+    @Override
+    public TravelData load() throws IOException, SQLException {
+        try {
+            active = primary;
+            return primary.load();
+        } catch (IOException | SQLException e) {
+            reportFallback(e);
+            active = fallback;
+            return fallback.load();
+        }
+    }
+
+    // Fingerprints whichever source the data was last loaded from; before the first load that is the primary
+    @Override
+    public long stamp() throws IOException {
+        return active.stamp();
+    }
+
+    private void reportFallback(Exception e) {
+        System.err.println(primary + " unavailable (" + e.getMessage() + "), using " + fallback);
+    }
+
+    @Override
+    public String toString() {
+        return active.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package travel.optimizer;
+
+import java.util.List;
+
+// One update applied to a RoutePlanner's graph, with enough detail for caches to drop only what it touches.
+final class GraphChange {
+    enum Kind { CONNECTION_ADDED, CONNECTION_REMOVED, CONNECTION_REWEIGHTED, SPOT_ADDED, SPOT_REMOVED }
+
+    private final Kind kind;
+    private final long version;
+    private final RouteGraph graph;
+    private final ShortestPathEngine engine;
+    private final TouristSpot spot;
+    private final TouristSpot other;
+    private final double oldDistance;
+    private final double newDistance;
+    private final List<TouristSpot> neighbours;
+
+    private GraphChange(Kind kind, long version, RouteGraph graph, ShortestPathEngine engine, TouristSpot spot,
+                        TouristSpot other, double oldDistance, double newDistance, List<TouristSpot> neighbours) {
+        this.kind = kind;
+        this.version = version;
+        this.graph = graph;
+        this.engine = engine;
+        this.spot = spot;
+        this.other = other;
+        this.oldDistance = oldDistance;
+        this.newDistance = newDistance;
+        this.neighbours = neighbours;
+    }
+
+    // Distances are NaN where the connection is absent
+    static GraphChange connection(long version, RouteGraph graph, ShortestPathEngine engine, TouristSpot a,
+                                  TouristSpot b, double oldDistance, double newDistance) {
+        Kind kind = Double.isNaN(oldDistance) ? Kind.CONNECTION_ADDED
+                : Double.isNaN(newDistance) ? Kind.CONNECTION_REMOVED : Kind.CONNECTION_REWEIGHTED;
+        return new GraphChange(kind, version, graph, engine, a, b, oldDistance, newDistance, List.of());
+    }
+
+    static GraphChange spotAdded(long version, RouteGraph graph, ShortestPathEngine engine, TouristSpot spot) {
+        return new GraphChange(Kind.SPOT_ADDED, version, graph, engine, spot, null, Double.NaN, Double.NaN, List.of());
+    }
+
+    static GraphChange spotRemoved(long version, RouteGraph graph, ShortestPathEngine engine, TouristSpot spot,
+                                   List<TouristSpot> neighbours) {
+        return new GraphChange(Kind.SPOT_REMOVED, version, graph, engine, spot, null, Double.NaN, Double.NaN,
+                neighbours);
+    }
+
+    public Kind kind() { return kind; }
+    public long version() { return version; }
+    public RouteGraph graph() { return graph; }
+    public ShortestPathEngine engine() { return engine; }
+    public TouristSpot spot() { return spot; }
+    // The connection's other end; null for spot changes
+    public TouristSpot other() { return other; }
+
+    // Every spot whose marker or connections were redrawn by this change
+    public double[] extent() {
+        double[] extent = {spot.getLatitude(), spot.getLatitude(), spot.getLongitude(), spot.getLongitude()};
+        if (other != null) {
+            include(extent, other);
+        }
+        for (TouristSpot neighbour : neighbours) {
+            include(extent, neighbour);
+        }
+        return extent; // minLat, maxLat, minLon, maxLon
+    }
+
+    private static void include(double[] extent, TouristSpot spot) {
+        extent[0] = Math.min(extent[0], spot.getLatitude());
+        extent[1] = Math.max(extent[1], spot.getLatitude());
+        extent[2] = Math.min(extent[2], spot.getLongitude());
+        extent[3] = Math.max(extent[3], spot.getLongitude());
+    }
+
+    // Whether a shortest route computed before the change (empty when there was none) may now be different.
+    // New or shortened connections only matter if the admissible lower bound of a detour through them
+    // beats the cached route
+    public boolean affects(TouristSpot start, TouristSpot end, List<TouristSpot> route) {
+        switch (kind) {
+            case SPOT_ADDED:
+                return spot.equals(start) || spot.equals(end);
+            case SPOT_REMOVED:
+                return spot.equals(start) || spot.equals(end) || route.contains(spot);
+            default:
+                if (usesConnection(route)) {
+                    return true;
+                }
+                boolean shorter = kind == Kind.CONNECTION_ADDED
+                        || (kind == Kind.CONNECTION_REWEIGHTED && newDistance < oldDistance);
+                if (!shorter) {
+                    return false;
+                }
+                if (route.isEmpty()) {
+                    return true;
+                }
+                double detour = newDistance + Math.min(
+                        engine.lowerBound(start, spot) + engine.lowerBound(other, end),
+                        engine.lowerBound(start, other) + engine.lowerBound(spot, end));
+                return detour < graph.pathDistance(route);
+        }
+    }
+
+    private boolean usesConnection(List<TouristSpot> route) {
+        for (int i = 0; i + 1 < route.size(); i++) {
+            TouristSpot from = route.get(i);
+            TouristSpot to = route.get(i + 1);
+            if ((from.equals(spot) && to.equals(other)) || (from.equals(other) && to.equals(spot))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
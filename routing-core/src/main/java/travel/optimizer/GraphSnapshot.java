@@ -0,0 +1,153 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Versioned binary image of a RouteGraph: header, spot-name string table, coordinate arrays and CSR arrays.
+//
+// Header (little endian): magic, version, spot count, arc count, source stamp, creation time (epoch millis),
+// body length and a CRC32C of everything after the version. Body: per spot a UTF-8 length and bytes, then latitudes, longitudes,
+// offsets, targets and weights.
+final class GraphSnapshot {
+    private static final int MAGIC = 0x52544753; // "RTGS"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 48;
+
+    private final RouteGraph graph;
+    private final long sourceStamp;
+    private final long createdMillis;
+
+    private GraphSnapshot(RouteGraph graph, long sourceStamp, long createdMillis) {
+        this.graph = graph;
+        this.sourceStamp = sourceStamp;
+        this.createdMillis = createdMillis;
+    }
+
+    public RouteGraph graph() { return graph; }
+    public long sourceStamp() { return sourceStamp; }
+    public long createdMillis() { return createdMillis; }
+
+    public static void write(RouteGraph graph, long sourceStamp, Path file) throws IOException {
+        int n = graph.spotCount();
+        int arcs = graph.edgeCount();
+        byte[][] names = new byte[n][];
+        long nameBytes = 0;
+        for (int i = 0; i < n; i++) {
+            names[i] = graph.spot(i).getName().getBytes(StandardCharsets.UTF_8);
+            nameBytes += 4 + names[i].length;
+        }
+        long bodyBytes = nameBytes + 16L * n + 4L * (n + 1) + 12L * arcs;
+        if (HEADER_BYTES + bodyBytes > Integer.MAX_VALUE) {
+            throw new IOException("Graph too large for a single snapshot mapping");
+        }
+
+        // Written beside the target and moved into place, so readers never see a partial file
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + bodyBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(HEADER_BYTES);
+            for (byte[] name : names) {
+                buffer.putInt(name.length).put(name);
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putDouble(graph.latitude(i));
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putDouble(graph.longitude(i));
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putInt(graph.firstEdge(i));
+            }
+            buffer.putInt(arcs);
+            for (int e = 0; e < arcs; e++) {
+                buffer.putInt(graph.target(e));
+            }
+            for (int e = 0; e < arcs; e++) {
+                buffer.putDouble(graph.weight(e));
+            }
+
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, n);
+            buffer.putInt(12, arcs);
+            buffer.putLong(16, sourceStamp);
+            buffer.putLong(24, System.currentTimeMillis());
+            buffer.putLong(32, bodyBytes);
+            buffer.putLong(40, checksum(buffer, bodyBytes));
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns null when the file is missing, from another format version, truncated or corrupt
+    public static GraphSnapshot read(Path file) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) < HEADER_BYTES) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        long bodyBytes = buffer.getLong(32);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || bodyBytes != buffer.capacity() - HEADER_BYTES
+                || buffer.getLong(40) != checksum(buffer, bodyBytes)) {
+            return null;
+        }
+        int n = buffer.getInt(8);
+        int arcs = buffer.getInt(12);
+
+        buffer.position(HEADER_BYTES);
+        byte[] scratch = new byte[256];
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            int length = buffer.getInt();
+            if (length > scratch.length) {
+                scratch = new byte[length];
+            }
+            buffer.get(scratch, 0, length);
+            names[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        buffer.asDoubleBuffer().get(latitudes);
+        buffer.position(buffer.position() + 8 * n);
+        buffer.asDoubleBuffer().get(longitudes);
+        buffer.position(buffer.position() + 8 * n);
+        int[] offsets = new int[n + 1];
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + 4 * (n + 1));
+        int[] targets = new int[arcs];
+        buffer.asIntBuffer().get(targets);
+        buffer.position(buffer.position() + 4 * arcs);
+        double[] weights = new double[arcs];
+        buffer.asDoubleBuffer().get(weights);
+
+        TouristSpot[] spots = new TouristSpot[n];
+        for (int i = 0; i < n; i++) {
+            spots[i] = new TouristSpot(names[i], latitudes[i], longitudes[i]);
+        }
+        RouteGraph graph = RouteGraph.fromArrays(spots, offsets, targets, weights);
+        return new GraphSnapshot(graph, buffer.getLong(16), buffer.getLong(24));
+    }
+
+    private static long checksum(ByteBuffer buffer, long bodyBytes) {
+        // The counts are covered too: a damaged count would otherwise send the reader off the end of the body
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(8).limit(40));
+        crc.update(buffer.duplicate().position(HEADER_BYTES).limit((int) (HEADER_BYTES + bodyBytes)));
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,102 @@
+package travel.optimizer;
+
+import java.util.Arrays;
+
+// Binary min-heap over dense int ids with decrease-key, so searches never box or allocate per push.
+final class IndexedMinHeap {
+    private int[] heap;
+    private int[] positions;
+    private double[] keys;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    // For searches whose id space grows as they run
+    public void ensureCapacity(int capacity) {
+        if (capacity > positions.length) {
+            int length = Math.max(capacity, positions.length * 2);
+            int old = positions.length;
+            heap = Arrays.copyOf(heap, length);
+            keys = Arrays.copyOf(keys, length);
+            positions = Arrays.copyOf(positions, length);
+            Arrays.fill(positions, old, length, -1);
+        }
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int id) { return positions[id] >= 0; }
+    public double peekKey() { return keys[heap[0]]; }
+
+    // Inserts the id, or lowers its key if it is already queued with a larger one
+    public void push(int id, double key) {
+        if (positions[id] < 0) {
+            keys[id] = key;
+            heap[size] = id;
+            positions[id] = size;
+            siftUp(size++);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(positions[id]);
+        }
+    }
+
+    public int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        double key = keys[id];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) {
+                break;
+            }
+            heap[index] = parentId;
+            positions[parentId] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+
+    private void siftDown(int index) {
+        int id = heap[index];
+        double key = keys[id];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            positions[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+}
@@ -0,0 +1,282 @@
+package travel.optimizer;
+
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+// Shortest visiting order for a set of stops from a fixed start: exact Held-Karp for small sets,
+// parallel 2-opt/Or-opt local search within a time budget above that.
+class ItineraryOptimizer {
+    static final int EXACT_LIMIT = 20; // Stops including the start
+
+    private final RouteGraph graph;
+    private final ShortestPathEngine engine;
+
+    public ItineraryOptimizer(RouteGraph graph, ShortestPathEngine engine) {
+        this.graph = graph;
+        this.engine = engine;
+    }
+
+    static class Itinerary {
+        final List<TouristSpot> stops;  // Visit order, starting with the start spot
+        final List<TouristSpot> route;  // Every spot passed through, for drawing
+        final double totalDistance;
+        final boolean exact;
+
+        Itinerary(List<TouristSpot> stops, List<TouristSpot> route, double totalDistance, boolean exact) {
+            this.stops = stops;
+            this.route = route;
+            this.totalDistance = totalDistance;
+            this.exact = exact;
+        }
+    }
+
+    // Returns null when some stop cannot be reached from the others
+    public Itinerary plan(TouristSpot start, Collection<TouristSpot> destinations, long timeBudgetMillis) {
+        LinkedHashSet<Integer> unique = new LinkedHashSet<>();
+        unique.add(graph.idOf(start));
+        for (TouristSpot spot : destinations) {
+            unique.add(graph.idOf(spot));
+        }
+        if (unique.contains(-1)) {
+            return null;
+        }
+        int[] stops = unique.stream().mapToInt(Integer::intValue).toArray();
+        int m = stops.length;
+
+        // One full Dijkstra per stop gives the pairwise distances and the legs between them
+        double[][] distances = new double[m][];
+        int[][] trees = new int[m][];
+        IntStream.range(0, m).parallel().forEach(i -> {
+            double[] all = new double[graph.spotCount()];
+            int[] previous = new int[graph.spotCount()];
+            engine.shortestPathTree(stops[i], all, previous);
+            double[] row = new double[m];
+            for (int j = 0; j < m; j++) {
+                row[j] = all[stops[j]];
+            }
+            distances[i] = row;
+            trees[i] = previous;
+        });
+        for (double[] row : distances) {
+            for (double d : row) {
+                if (Double.isInfinite(d)) {
+                    return null;
+                }
+            }
+        }
+
+        boolean exact = m <= EXACT_LIMIT;
+        int[] order = exact ? heldKarp(distances) : localSearch(distances, timeBudgetMillis);
+        return buildItinerary(stops, order, distances, trees, exact);
+    }
+
+    // dp[mask][j]: shortest walk from the start through the stops in mask, ending at stop j + 1
+    static int[] heldKarp(double[][] d) {
+        int m = d.length;
+        int k = m - 1;
+        if (k == 0) {
+            return new int[] {0};
+        }
+        int subsets = 1 << k;
+        double[] dp = new double[subsets * k];
+        byte[] parent = new byte[subsets * k];
+        Arrays.fill(dp, Double.POSITIVE_INFINITY);
+        for (int j = 0; j < k; j++) {
+            dp[(1 << j) * k + j] = d[0][j + 1];
+            parent[(1 << j) * k + j] = -1;
+        }
+
+        for (int mask = 1; mask < subsets; mask++) {
+            for (int j = 0; j < k; j++) {
+                double current = dp[mask * k + j];
+                if ((mask & (1 << j)) == 0 || current == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int next = 0; next < k; next++) {
+                    if ((mask & (1 << next)) != 0) {
+                        continue;
+                    }
+                    int extended = (mask | (1 << next)) * k + next;
+                    double candidate = current + d[j + 1][next + 1];
+                    if (candidate < dp[extended]) {
+                        dp[extended] = candidate;
+                        parent[extended] = (byte) j;
+                    }
+                }
+            }
+        }
+
+        int full = subsets - 1;
+        int last = 0;
+        for (int j = 1; j < k; j++) {
+            if (dp[full * k + j] < dp[full * k + last]) {
+                last = j;
+            }
+        }
+        int[] order = new int[m];
+        int mask = full;
+        for (int position = m - 1; position > 0; position--) {
+            order[position] = last + 1;
+            int previous = parent[mask * k + last];
+            mask &= ~(1 << last);
+            last = previous;
+        }
+        order[0] = 0;
+        return order;
+    }
+
+    // Independent randomized restarts on every core; each keeps improving until the budget runs out
+    static int[] localSearch(double[][] d, long timeBudgetMillis) {
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        int workers = Runtime.getRuntime().availableProcessors();
+        return IntStream.range(0, workers).parallel()
+                .mapToObj(worker -> improveUntil(d, deadline, worker == 0))
+                .min(Comparator.comparingDouble(order -> length(d, order)))
+                .orElseThrow();
+    }
+
+    private static int[] improveUntil(double[][] d, long deadline, boolean greedyStart) {
+        int[] best = null;
+        double bestLength = Double.POSITIVE_INFINITY;
+        boolean greedy = greedyStart;
+        do {
+            int[] order = greedy ? nearestNeighbour(d) : randomOrder(d.length);
+            greedy = false;
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadline) {
+                improved = twoOpt(d, order) | orOpt(d, order);
+            }
+            double length = length(d, order);
+            if (length < bestLength) {
+                best = order;
+                bestLength = length;
+            }
+        } while (System.nanoTime() < deadline);
+        return best;
+    }
+
+    private static int[] nearestNeighbour(double[][] d) {
+        int m = d.length;
+        int[] order = new int[m];
+        boolean[] used = new boolean[m];
+        used[0] = true;
+        for (int position = 1; position < m; position++) {
+            int from = order[position - 1];
+            int nearest = -1;
+            for (int j = 1; j < m; j++) {
+                if (!used[j] && (nearest < 0 || d[from][j] < d[from][nearest])) {
+                    nearest = j;
+                }
+            }
+            order[position] = nearest;
+            used[nearest] = true;
+        }
+        return order;
+    }
+
+    private static int[] randomOrder(int m) {
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = m - 1; i > 1; i--) {
+            int j = 1 + random.nextInt(i);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    // Reverses order[i..j] whenever that shortens the open path; the start stays first
+    private static boolean twoOpt(double[][] d, int[] order) {
+        int m = order.length;
+        boolean improved = false;
+        for (int i = 1; i < m - 1; i++) {
+            for (int j = i + 1; j < m; j++) {
+                double before = d[order[i - 1]][order[i]] + (j + 1 < m ? d[order[j]][order[j + 1]] : 0);
+                double after = d[order[i - 1]][order[j]] + (j + 1 < m ? d[order[i]][order[j + 1]] : 0);
+                if (after < before - 1e-9) {
+                    for (int a = i, b = j; a < b; a++, b--) {
+                        int swap = order[a];
+                        order[a] = order[b];
+                        order[b] = swap;
+                    }
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Moves runs of one to three stops to a better position
+    private static boolean orOpt(double[][] d, int[] order) {
+        int m = order.length;
+        boolean improved = false;
+        for (int run = 1; run <= 3; run++) {
+            for (int i = 1; i + run <= m; i++) {
+                int first = order[i];
+                int last = order[i + run - 1];
+                int before = order[i - 1];
+                int after = i + run < m ? order[i + run] : -1;
+                double removed = d[before][first] + (after >= 0 ? d[last][after] - d[before][after] : 0);
+
+                for (int p = 0; p < m; p++) {
+                    if (p >= i - 1 && p < i + run) {
+                        continue; // Insertion point inside or right before the run
+                    }
+                    int left = order[p];
+                    int right = p + 1 < m ? order[p + 1] : -1;
+                    double added = d[left][first] + (right >= 0 ? d[last][right] - d[left][right] : 0);
+                    if (added < removed - 1e-9) {
+                        moveRun(order, i, run, p);
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return improved;
+    }
+
+    // Moves order[i..i+run) so it follows the element currently at position p
+    private static void moveRun(int[] order, int i, int run, int p) {
+        int[] segment = Arrays.copyOfRange(order, i, i + run);
+        if (p < i) {
+            System.arraycopy(order, p + 1, order, p + 1 + run, i - p - 1);
+            System.arraycopy(segment, 0, order, p + 1, run);
+        } else {
+            System.arraycopy(order, i + run, order, i, p - i - run + 1);
+            System.arraycopy(segment, 0, order, p - run + 1, run);
+        }
+    }
+
+    static double length(double[][] d, int[] order) {
+        double total = 0;
+        for (int i = 0; i < order.length - 1; i++) {
+            total += d[order[i]][order[i + 1]];
+        }
+        return total;
+    }
+
+    private Itinerary buildItinerary(int[] stops, int[] order, double[][] distances, int[][] trees, boolean exact) {
+        List<TouristSpot> visits = new ArrayList<>(order.length);
+        List<TouristSpot> route = new ArrayList<>();
+        route.add(graph.spot(stops[order[0]]));
+        for (int i = 0; i < order.length; i++) {
+            visits.add(graph.spot(stops[order[i]]));
+            if (i == 0) {
+                continue;
+            }
+            // Tree rooted at the leg's end: walking predecessors from the leg's start runs forwards
+            int[] tree = trees[order[i]];
+            for (int v = tree[stops[order[i - 1]]]; v >= 0; v = tree[v]) {
+                route.add(graph.spot(v));
+            }
+        }
+        return new Itinerary(visits, route, length(distances, order), exact);
+    }
+}
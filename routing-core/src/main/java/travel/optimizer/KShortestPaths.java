@@ -0,0 +1,173 @@
+package travel.optimizer;
+
+import java.util.*;
+import java.util.List;
+
+// Yen's k-shortest loopless paths, produced lazily in order of increasing distance.
+class KShortestPaths implements Iterator<List<TouristSpot>> {
+    private final RouteGraph graph;
+    private final ShortestPathEngine engine;
+    private final int source;
+    private final int target;
+
+    private final List<int[]> accepted = new ArrayList<>();
+    private final PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+    private final Set<PathKey> seen = new HashSet<>();
+    private final boolean[] excludedSpots;
+    private final boolean[] excludedEdges;
+    private int[] pending;
+    private boolean exhausted;
+    private boolean started;
+
+    public KShortestPaths(RouteGraph graph, ShortestPathEngine engine, TouristSpot start, TouristSpot end) {
+        this.graph = graph;
+        this.engine = engine;
+        this.excludedSpots = new boolean[graph.spotCount()];
+        this.excludedEdges = new boolean[graph.edgeCount()];
+
+        this.source = graph.idOf(start);
+        this.target = graph.idOf(end);
+        this.exhausted = source < 0 || target < 0;
+    }
+
+    public RouteGraph graph() { return graph; }
+
+    @Override
+    public boolean hasNext() {
+        if (pending == null && !exhausted) {
+            // The first path is searched for lazily, so nextPage accounts for its cost
+            pending = started ? advance() : first();
+            started = true;
+            exhausted = pending == null;
+        }
+        return pending != null;
+    }
+
+    @Override
+    public List<TouristSpot> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int[] path = pending;
+        pending = null;
+        accepted.add(path);
+        return graph.toSpots(path, path.length);
+    }
+
+    public List<List<TouristSpot>> nextPage(int pageSize) {
+        RouteQueryEvent event = RoutingMetrics.beginQuery(RoutingMetrics.Operation.PATHS_PAGE);
+        List<List<TouristSpot>> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && hasNext()) {
+            page.add(next());
+        }
+        if (source >= 0 && target >= 0) {
+            RoutingMetrics.INSTANCE.endQuery(event, graph.spot(source), graph.spot(target), page.size());
+        }
+        return page;
+    }
+
+    private int[] first() {
+        int[] path = engine.shortestPath(source, target, true);
+        if (path != null) {
+            seen.add(new PathKey(path));
+        }
+        return path;
+    }
+
+    // Deviates from every spur node of the last accepted path, then takes the cheapest candidate
+    private int[] advance() {
+        int[] previous = accepted.get(accepted.size() - 1);
+        for (int i = 0; i < previous.length - 1; i++) {
+            int spur = previous[i];
+
+            List<Integer> blockedEdges = new ArrayList<>();
+            for (int[] path : accepted) {
+                if (path.length > i + 1 && sharesRoot(path, previous, i)) {
+                    int edge = edgeBetween(spur, path[i + 1]);
+                    if (edge >= 0 && !excludedEdges[edge]) {
+                        excludedEdges[edge] = true;
+                        blockedEdges.add(edge);
+                    }
+                }
+            }
+            for (int r = 0; r < i; r++) {
+                excludedSpots[previous[r]] = true;
+            }
+
+            int[] spurPath = engine.shortestPath(spur, target, true, excludedSpots, excludedEdges);
+
+            for (int edge : blockedEdges) {
+                excludedEdges[edge] = false;
+            }
+            for (int r = 0; r < i; r++) {
+                excludedSpots[previous[r]] = false;
+            }
+
+            if (spurPath != null) {
+                int[] candidate = new int[i + spurPath.length];
+                System.arraycopy(previous, 0, candidate, 0, i);
+                System.arraycopy(spurPath, 0, candidate, i, spurPath.length);
+                if (seen.add(new PathKey(candidate))) {
+                    candidates.add(new Candidate(candidate, graph.pathDistance(candidate, candidate.length)));
+                }
+            }
+        }
+
+        Candidate best = candidates.poll();
+        return best != null ? best.path : null;
+    }
+
+    private static boolean sharesRoot(int[] path, int[] root, int length) {
+        for (int r = 0; r <= length; r++) {
+            if (path[r] != root[r]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int edgeBetween(int from, int to) {
+        for (int e = graph.firstEdge(from); e < graph.endEdge(from); e++) {
+            if (graph.target(e) == to) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        final int[] path;
+        final double distance;
+
+        Candidate(int[] path, double distance) {
+            this.path = path;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byDistance = Double.compare(distance, other.distance);
+            return byDistance != 0 ? byDistance : Integer.compare(path.length, other.path.length);
+        }
+    }
+
+    private static class PathKey {
+        final int[] path;
+        final int hash;
+
+        PathKey(int[] path) {
+            this.path = path;
+            this.hash = Arrays.hashCode(path);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PathKey && Arrays.equals(path, ((PathKey) o).path);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package travel.optimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Exhaustive simple-path enumeration as fork-join tasks. Subtree sizes are very uneven, so instead of splitting
+// at fixed levels each task hands a branch off as a new task whenever its worker's queue is running dry, and
+// keeps the rest; busy parts of the search keep splitting wherever they turn out to be.
+class ParallelPathEnumerator {
+    // Branches are forked while fewer than this many tasks are queued beyond what idle workers could steal
+    private static final int SURPLUS_TASKS = 2;
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    // Called concurrently from worker threads; the array is reused, so copy what you keep
+    interface PathSink {
+        void accept(int[] path, int length);
+    }
+
+    private final RouteGraph graph;
+    private final int source;
+    private final int target;
+    private final LongAdder pathsFound = new LongAdder();
+    private final LongAdder nodesExpanded = new LongAdder();
+    private volatile boolean cancelled;
+    private volatile boolean timedOut;
+    private long deadline;
+
+    public ParallelPathEnumerator(RouteGraph graph, int source, int target) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+    }
+
+    // Blocks until every path is found, the timeout elapses or cancel() is called; returns the path count
+    public long enumerate(long timeout, TimeUnit unit, PathSink sink) {
+        RouteQueryEvent event = RoutingMetrics.beginQuery(RoutingMetrics.Operation.ENUMERATE);
+        deadline = System.nanoTime() + unit.toNanos(timeout);
+        int[] prefix = {source};
+        long[] visited = new long[(graph.spotCount() + 63) >>> 6];
+        mark(visited, source);
+        ForkJoinPool.commonPool().invoke(new SearchTask(prefix, visited, sink));
+        long paths = pathsFound.sum();
+        RoutingMetrics.INSTANCE.endQuery(event, graph.spot(source), graph.spot(target), nodesExpanded.sum(), paths);
+        return paths;
+    }
+
+    public void cancel() { cancelled = true; }
+    public boolean isCancelled() { return cancelled; }
+    public boolean isTimedOut() { return timedOut; }
+    public long pathsFound() { return pathsFound.sum(); }
+    public long nodesExpanded() { return nodesExpanded.sum(); }
+
+    private boolean shouldStop() {
+        if (!cancelled && !timedOut && System.nanoTime() - deadline > 0) {
+            timedOut = true;
+        }
+        return cancelled || timedOut;
+    }
+
+    private static void mark(long[] bits, int id) { bits[id >>> 6] |= 1L << id; }
+    private static void unmark(long[] bits, int id) { bits[id >>> 6] &= ~(1L << id); }
+    private static boolean marked(long[] bits, int id) { return (bits[id >>> 6] & (1L << id)) != 0; }
+
+    private class SearchTask extends RecursiveAction {
+        private final int[] prefix;
+        private final long[] visited;
+        private final PathSink sink;
+        private int sinceClockCheck;
+        private long expanded;
+        private List<SearchTask> forked;
+
+        SearchTask(int[] prefix, long[] visited, PathSink sink) {
+            this.prefix = prefix;
+            this.visited = visited;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (shouldStop()) {
+                return;
+            }
+            int current = prefix[prefix.length - 1];
+            if (current == target) {
+                pathsFound.increment();
+                sink.accept(prefix, prefix.length);
+                return;
+            }
+
+            int[] path = Arrays.copyOf(prefix, graph.spotCount());
+            dfs(current, path, prefix.length);
+            nodesExpanded.add(expanded);
+            if (forked != null) {
+                for (SearchTask task : forked) {
+                    task.join();
+                }
+            }
+        }
+
+        // Off the pool, for instance on a caller helping with the root, there is no queue to judge by
+        private boolean shouldSplit() {
+            return inForkJoinPool() && getSurplusQueuedTaskCount() < SURPLUS_TASKS;
+        }
+
+        private void dfs(int current, int[] path, int depth) {
+            if (++sinceClockCheck >= CLOCK_CHECK_INTERVAL) {
+                sinceClockCheck = 0;
+                if (shouldStop()) {
+                    return;
+                }
+            } else if (cancelled || timedOut) {
+                return;
+            }
+            expanded++;
+            int end = graph.endEdge(current);
+            for (int e = graph.firstEdge(current); e < end; e++) {
+                int neighbor = graph.target(e);
+                if (marked(visited, neighbor)) {
+                    continue;
+                }
+                path[depth] = neighbor;
+                if (neighbor == target) {
+                    pathsFound.increment();
+                    sink.accept(path, depth + 1);
+                    continue;
+                }
+                mark(visited, neighbor);
+                // The last branch is this task's own to search, so it is never handed off
+                if (e + 1 < end && shouldSplit()) {
+                    SearchTask task = new SearchTask(Arrays.copyOf(path, depth + 1), visited.clone(), sink);
+                    task.fork();
+                    if (forked == null) {
+                        forked = new ArrayList<>();
+                    }
+                    forked.add(task);
+                } else {
+                    dfs(neighbor, path, depth + 1);
+                }
+                unmark(visited, neighbor); // Backtrack
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package travel.optimizer;
+
+import java.util.*;
+import java.util.List;
+
+// Pareto-optimal routes between two spots over (distance, stops, average rating), sorted by distance.
+//
+// Label-setting search: a label is a partial route ending at some spot, and labels are expanded in order of
+// distance plus a lower bound on the rest. An average cannot be pruned on, since a poorly rated start can be
+// made up for later, and a label with fewer stops or less summed shortfall from a top rating can still end
+// with the worse average. Routes also never visit a spot twice, so a label that has been to different spots
+// can be extended in different ways. The only label that is safely dropped is one that has visited exactly the
+// same spots as another ending at the same spot, but is longer: the two have the same stops and rating, and
+// every extension of one is open to the other. A route found to the end rules out labels only if it is rated
+// perfectly, since any label could yet be lifted by five-star spots. The routes reaching the end are then
+// filtered on all three criteria, so the frontier is exact unless the label budget runs out. The search is
+// bounded to routes within a detour factor of the shortest one and to that budget, which keeps it interactive
+// on large graphs.
+class ParetoRouter {
+    static final double DEFAULT_MAX_DETOUR = 1.2;
+    static final int DEFAULT_MAX_LABELS = 200_000;
+
+    // stops counts the spots passed through between start and end; the average covers every spot on the route
+    record Route(List<TouristSpot> spots, double distance, int stops, double averageRating) {
+    }
+
+    // complete is false if the label budget ran out, in which case routes are only the best found
+    record Frontier(List<Route> routes, boolean complete) {
+    }
+
+    private final RouteGraph graph;
+    private final ShortestPathEngine engine;
+    private final RatingStore ratings;
+
+    // Labels, as parallel arrays; a label's route is its parent chain, and its signature hashes the set of
+    // spots on it, so labels over the same spots are found without comparing routes
+    private int[] spots;
+    private int[] hops;
+    private double[] distances;
+    private double[] shortfalls;
+    private int[] parents;
+    private long[] signatures;
+    private boolean[] dominated;
+    private int count;
+    private IndexedMinHeap queue;
+    // Shortest label for each end spot and signature
+    private Map<Long, Integer> shortestBySpots;
+    // onPath[v] == label while label is expanded and v is on its route
+    private int[] onPath;
+    // Per spot, filled in as spots are reached; NaN until then
+    private double[] remainingFrom;
+    private double[] shortfallOf;
+
+    public ParetoRouter(RouteGraph graph, ShortestPathEngine engine, RatingStore ratings) {
+        this.graph = graph;
+        this.engine = engine;
+        this.ratings = ratings;
+    }
+
+    // Routes up to maxDetour times the length of shortest, a shortest route from start to end
+    public Frontier routes(List<TouristSpot> shortest, double maxDetour, int maxLabels) {
+        if (shortest.isEmpty()) {
+            return new Frontier(List.of(), true);
+        }
+        TouristSpot end = shortest.get(shortest.size() - 1);
+        int target = graph.idOf(end);
+        double bound = graph.pathDistance(shortest) * maxDetour + 1e-9;
+        allocate(Math.max(Math.min(maxLabels, 1024), shortest.size()));
+        List<Integer> arrivals = new ArrayList<>();
+        List<Integer> perfect = new ArrayList<>();
+
+        // Seeding the shortest route means there is a route to prune against from the start, and one to show
+        // even if the budget runs out on a long trip
+        int seed = -1;
+        for (TouristSpot spot : shortest) {
+            int v = graph.idOf(spot);
+            seed = seed < 0
+                    ? add(v, 0, 0, shortfall(v), -1, signature(v))
+                    : add(v, hops[seed] + 1, distances[seed] + graph.distance(spots[seed], v),
+                            shortfalls[seed] + shortfall(v), seed, signatures[seed] ^ signature(v));
+            if (v == target) {
+                arrive(seed, arrivals, perfect);
+            } else {
+                queue.push(seed, distances[seed] + engine.lowerBound(spot, end));
+            }
+        }
+        boolean complete = true;
+        int expanded = 0;
+        while (!queue.isEmpty()) {
+            int label = queue.poll();
+            if (dominated[label]) {
+                continue;
+            }
+            expanded++;
+            int u = spots[label];
+            if (u == target) {
+                arrive(label, arrivals, perfect);
+                continue;
+            }
+            for (int l = label; l >= 0; l = parents[l]) {
+                onPath[spots[l]] = label;
+            }
+            for (int e = graph.firstEdge(u); e < graph.endEdge(u); e++) {
+                int w = graph.target(e);
+                if (onPath[w] == label) {
+                    continue;
+                }
+                double distance = distances[label] + graph.weight(e);
+                double remaining = remainingFrom[w];
+                if (Double.isNaN(remaining)) {
+                    remaining = remainingFrom[w] = engine.lowerBound(graph.spot(w), end);
+                }
+                if (distance + remaining > bound) {
+                    continue;
+                }
+                int hop = hops[label] + 1;
+                double shortfall = shortfalls[label] + shortfall(w);
+                // Short of the end, at least one more hop is still to come
+                if (beaten(perfect, distance + remaining, w == target ? hop : hop + 1)) {
+                    continue;
+                }
+                long signature = signatures[label] ^ signature(w);
+                Integer rival = shortestBySpots.get(key(w, signature));
+                boolean sameSpots = rival != null && !dominated[rival] && sameSpots(rival, label, w);
+                if (sameSpots && distances[rival] <= distance) {
+                    continue;
+                }
+                if (count >= maxLabels) {
+                    complete = false;
+                    continue;
+                }
+                if (sameSpots) {
+                    dominated[rival] = true;
+                }
+                int added = add(w, hop, distance, shortfall, label, signature);
+                queue.push(added, distance + remaining);
+            }
+        }
+        RoutingMetrics.searched(expanded);
+        return new Frontier(frontier(arrivals), complete);
+    }
+
+    private double shortfall(int spot) {
+        double shortfall = shortfallOf[spot];
+        if (Double.isNaN(shortfall)) {
+            shortfall = shortfallOf[spot] = RatingStore.MAX_RATING - ratings.score(graph.spot(spot));
+        }
+        return shortfall;
+    }
+
+    // Only perfectly rated arrivals can beat a label, as no extension of it can have a better average
+    private void arrive(int label, List<Integer> arrivals, List<Integer> perfect) {
+        arrivals.add(label);
+        if (shortfalls[label] == 0) {
+            perfect.add(label);
+        }
+    }
+
+    private boolean beaten(List<Integer> perfect, double distance, int hop) {
+        for (int arrival : perfect) {
+            if (!dominated[arrival] && distances[arrival] <= distance && hops[arrival] <= hop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Whether rival has visited the same spots as label extended to spot, whose route is marked in onPath
+    private boolean sameSpots(int rival, int label, int spot) {
+        if (spots[rival] != spot || hops[rival] != hops[label] + 1) {
+            return false;
+        }
+        for (int l = parents[rival]; l >= 0; l = parents[l]) {
+            if (onPath[spots[l]] != label) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Spot sets are hashed by xor-ing a mixed 64-bit value per spot, so a route's order does not matter
+    private static long signature(int spot) {
+        long z = (spot + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long key(int spot, long signature) {
+        return signature * 31 + spot;
+    }
+
+    private void allocate(int capacity) {
+        spots = new int[capacity];
+        hops = new int[capacity];
+        distances = new double[capacity];
+        shortfalls = new double[capacity];
+        parents = new int[capacity];
+        signatures = new long[capacity];
+        dominated = new boolean[capacity];
+        count = 0;
+        queue = new IndexedMinHeap(capacity);
+        shortestBySpots = new HashMap<>();
+        onPath = new int[graph.spotCount()];
+        Arrays.fill(onPath, -1);
+        remainingFrom = new double[graph.spotCount()];
+        Arrays.fill(remainingFrom, Double.NaN);
+        shortfallOf = new double[graph.spotCount()];
+        Arrays.fill(shortfallOf, Double.NaN);
+    }
+
+    private int add(int spot, int hop, double distance, double shortfall, int parent, long signature) {
+        if (count == spots.length) {
+            int capacity = count * 2;
+            spots = Arrays.copyOf(spots, capacity);
+            hops = Arrays.copyOf(hops, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            shortfalls = Arrays.copyOf(shortfalls, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            signatures = Arrays.copyOf(signatures, capacity);
+            dominated = Arrays.copyOf(dominated, capacity);
+            queue.ensureCapacity(capacity);
+        }
+        int label = count++;
+        spots[label] = spot;
+        hops[label] = hop;
+        distances[label] = distance;
+        shortfalls[label] = shortfall;
+        parents[label] = parent;
+        signatures[label] = signature;
+        shortestBySpots.put(key(spot, signature), label);
+        return label;
+    }
+
+    // Routes reaching the end can still be dominated by one over other spots
+    private List<Route> frontier(List<Integer> arrivals) {
+        List<Route> routes = new ArrayList<>();
+        for (int label : arrivals) {
+            if (!dominated[label]) {
+                routes.add(route(label));
+            }
+        }
+        // Anything that dominates a route sorts before it
+        routes.sort(Comparator.comparingDouble(Route::distance).thenComparingInt(Route::stops)
+                .thenComparing(Comparator.comparingDouble(Route::averageRating).reversed()));
+        List<Route> frontier = new ArrayList<>();
+        for (Route route : routes) {
+            boolean kept = true;
+            for (Route other : frontier) {
+                if (other.distance() <= route.distance() && other.stops() <= route.stops()
+                        && other.averageRating() >= route.averageRating()) {
+                    kept = false;
+                    break;
+                }
+            }
+            if (kept) {
+                frontier.add(route);
+            }
+        }
+        return frontier;
+    }
+
+    private Route route(int label) {
+        int[] path = new int[hops[label] + 1];
+        for (int l = label, i = path.length - 1; l >= 0; l = parents[l], i--) {
+            path[i] = spots[l];
+        }
+        return new Route(graph.toSpots(path, path.length), distances[label], Math.max(0, hops[label] - 1),
+                RatingStore.MAX_RATING - shortfalls[label] / path.length);
+    }
+}
@@ -0,0 +1,90 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-spot rating aggregates over ratings.csv, which is kept as an append-only log of "spot, rating" rows.
+// The file is read once; after that every batch of ratings is appended as one write and folded into the
+// running count and sum of each spot, so averages are always current without re-reading anything.
+// Rows other planners append show up on their next start.
+final class RatingStore {
+    static final int MIN_RATING = 1;
+    static final int MAX_RATING = 5;
+    // Scores unrated spots as the middle of the scale, so rating-aware routing neither seeks nor avoids them
+    static final double UNRATED_SCORE = (MIN_RATING + MAX_RATING) / 2.0;
+    private static final String HEADER = "Tourist Spot, Rating\n";
+
+    record Aggregate(int count, long sum) {
+        public double average() {
+            return (double) sum / count;
+        }
+
+        Aggregate plus(Aggregate other) {
+            return new Aggregate(count + other.count, sum + other.sum);
+        }
+    }
+
+    private final Path file;
+    private final Map<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    private RatingStore(Path file) {
+        this.file = file;
+    }
+
+    // Rows that do not parse, such as the header, are skipped
+    public static RatingStore open(Path file) throws IOException {
+        RatingStore store = new RatingStore(file);
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int comma = line.lastIndexOf(',');
+                if (comma <= 0) {
+                    continue;
+                }
+                try {
+                    int rating = Integer.parseInt(line.substring(comma + 1).trim());
+                    if (rating >= MIN_RATING && rating <= MAX_RATING) {
+                        store.aggregates.merge(line.substring(0, comma).trim(), new Aggregate(1, rating),
+                                Aggregate::plus);
+                    }
+                } catch (NumberFormatException e) {
+                    // Header or malformed row
+                }
+            }
+        }
+        return store;
+    }
+
+    // Appends the ratings, keyed by spot name; throws IllegalArgumentException if one is out of range
+    public synchronized void add(Map<String, Integer> ratings) throws IOException {
+        StringBuilder rows = new StringBuilder(Files.exists(file) ? "" : HEADER);
+        for (Map.Entry<String, Integer> entry : ratings.entrySet()) {
+            int rating = entry.getValue();
+            if (rating < MIN_RATING || rating > MAX_RATING || entry.getKey().indexOf('\n') >= 0) {
+                throw new IllegalArgumentException("Invalid rating " + rating + " for " + entry.getKey());
+            }
+            rows.append(entry.getKey()).append(", ").append(rating).append('\n');
+        }
+        Files.write(file, rows.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        ratings.forEach((spot, rating) -> aggregates.merge(spot, new Aggregate(1, rating), Aggregate::plus));
+    }
+
+    // Null if the spot has never been rated
+    public Aggregate aggregate(String spot) {
+        return aggregates.get(spot);
+    }
+
+    public double score(TouristSpot spot) {
+        Aggregate aggregate = aggregates.get(spot.getName());
+        return aggregate != null ? aggregate.average() : UNRATED_SCORE;
+    }
+
+    public int ratedSpots() {
+        return aggregates.size();
+    }
+}
@@ -0,0 +1,94 @@
+package travel.optimizer;
+
+import java.util.*;
+import java.util.List;
+
+// Every spot within a road-distance budget of one or more starts: a single Dijkstra seeded with all the starts
+// that stops once the next spot would be over budget, so it only touches the reachable part of the graph.
+// The search arrays are pooled and reset through the spots touched, so batches of queries neither allocate
+// nor clear graph-sized arrays per query.
+final class Reachability {
+    record Reach(TouristSpot spot, double distance) {
+    }
+
+    private static final SearchPool<Workspace> workspaces = new SearchPool<>(Workspace::new);
+
+    private final RouteGraph graph;
+
+    public Reachability(RouteGraph graph) {
+        this.graph = graph;
+    }
+
+    // Sorted by distance from the nearest start; unknown starts are ignored
+    public List<Reach> within(Collection<TouristSpot> starts, double budget) {
+        Workspace workspace = workspaces.borrow();
+        try {
+            return within(workspace, starts, budget);
+        } finally {
+            workspace.reset();
+            workspaces.release(workspace);
+        }
+    }
+
+    private List<Reach> within(Workspace workspace, Collection<TouristSpot> starts, double budget) {
+        workspace.ensure(graph.spotCount());
+        double[] distances = workspace.distances;
+        IndexedMinHeap queue = workspace.queue;
+        for (TouristSpot start : starts) {
+            int source = graph.idOf(start);
+            if (source >= 0 && budget >= 0) {
+                workspace.reach(source, 0);
+            }
+        }
+
+        List<Reach> reachable = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            double distance = distances[v];
+            reachable.add(new Reach(graph.spot(v), distance));
+            for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                double candidate = distance + graph.weight(e);
+                if (candidate <= budget && candidate < distances[graph.target(e)]) {
+                    workspace.reach(graph.target(e), candidate);
+                }
+            }
+        }
+        RoutingMetrics.searched(reachable.size());
+        return reachable;
+    }
+
+    private static final class Workspace {
+        double[] distances = new double[0];
+        IndexedMinHeap queue = new IndexedMinHeap(0);
+        int[] touched = new int[64];
+        int touchedCount;
+
+        // Spots added to the graph since the workspace was last used need room
+        void ensure(int n) {
+            if (distances.length < n) {
+                distances = new double[n];
+                Arrays.fill(distances, Double.POSITIVE_INFINITY);
+                queue = new IndexedMinHeap(n);
+            }
+        }
+
+        void reach(int v, double distance) {
+            if (distances[v] == Double.POSITIVE_INFINITY) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = v;
+            }
+            distances[v] = distance;
+            queue.push(v, distance);
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package travel.optimizer;
+
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Size-bounded LRU cache of route query results keyed by (start, end, mode, k), striped over independently
+// locked segments so concurrent lookups rarely contend.
+//
+// Every entry records the planner version it was computed on. When the planner's graph changes, entries the
+// change affects (per GraphChange.affects) are dropped and the rest are carried over to the new version;
+// anything still tagged with an older version is treated as a miss.
+final class RouteCache {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 32;
+
+    enum Mode { BEST, PATHS }
+
+    // routes holds one route for BEST queries (empty when there is none) and up to k for PATHS queries;
+    // text is the rendered description, if the caller caches one
+    record Result(List<List<TouristSpot>> routes, String text) {
+    }
+
+    record Stats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Key(String start, String end, Mode mode, int k) {
+    }
+
+    private static final class Entry {
+        final TouristSpot start;
+        final TouristSpot end;
+        final Result result;
+        volatile long version;
+
+        Entry(TouristSpot start, TouristSpot end, Result result, long version) {
+            this.start = start;
+            this.end = end;
+            this.result = result;
+            this.version = version;
+        }
+    }
+
+    private final RoutePlanner planner;
+    private final int capacity;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public RouteCache(RoutePlanner planner, int capacity) {
+        this.planner = planner;
+        this.capacity = capacity;
+        // Small caches get fewer segments, so an unlucky hash spread does not evict entries well below capacity
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY)));
+        int perSegment = Math.max(1, (capacity + count - 1) / count);
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        planner.addChangeListener(this::invalidate);
+    }
+
+    // Returns the cached result, or computes, caches and returns it. The computation runs outside any lock
+    public Result get(TouristSpot start, TouristSpot end, Mode mode, int k, Supplier<Result> computation) {
+        Key key = new Key(start.getName(), end.getName(), mode, k);
+        Segment segment = segmentFor(key);
+        long version = planner.version();
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry != null && entry.version == version) {
+                hits.increment();
+                return entry.result;
+            }
+        }
+        misses.increment();
+        Result result = computation.get();
+        synchronized (segment) {
+            // A result computed across an update may already be stale, so it is only kept if nothing changed
+            if (planner.version() == version) {
+                segment.put(key, new Entry(start, end, result, version));
+            }
+        }
+        return result;
+    }
+
+    public Stats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size, capacity);
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private void invalidate(GraphChange change) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Iterator<Map.Entry<Key, Entry>> entries = segment.entrySet().iterator();
+                while (entries.hasNext()) {
+                    Map.Entry<Key, Entry> mapping = entries.next();
+                    Entry entry = mapping.getValue();
+                    if (entry.version == change.version()) {
+                        continue; // Already computed on the new graph
+                    }
+                    if (entry.version == change.version() - 1 && !affects(change, mapping.getKey(), entry)) {
+                        entry.version = change.version();
+                    } else {
+                        entries.remove();
+                        invalidations.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean affects(GraphChange change, Key key, Entry entry) {
+        List<List<TouristSpot>> routes = entry.result.routes;
+        // Fewer than k routes (or "no route") means a new or shorter connection could add one
+        boolean incomplete = routes.size() < key.k || routes.get(0).isEmpty();
+        if (incomplete && change.affects(entry.start, entry.end, List.of())) {
+            return true;
+        }
+        for (List<TouristSpot> route : routes) {
+            if (!route.isEmpty() && change.affects(entry.start, entry.end, route)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private final class Segment extends LinkedHashMap<Key, Entry> {
+        private final int limit;
+
+        Segment(int limit) {
+            super(16, 0.75f, true); // Access order, so the eldest entry is the least recently used
+            this.limit = limit;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > limit) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package travel.optimizer;
+
+import java.util.*;
+
+// Immutable snapshot of the connection graph: spots interned to dense ids, adjacency in compressed sparse rows.
+final class RouteGraph {
+    private final TouristSpot[] spots;
+    private final Map<String, Integer> ids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final EdgeWeightIndex edgeWeights;
+    private final double[] bounds; // minLat, maxLat, minLon, maxLon; all 0 without spots
+    private volatile long fingerprint; // Computed on first use; 0 until then
+
+    private RouteGraph(TouristSpot[] spots, Map<String, Integer> ids, int[] offsets, int[] targets, double[] weights,
+                       EdgeWeightIndex edgeWeights) {
+        this(spots, ids, coordinates(spots, true), coordinates(spots, false), null, offsets, targets, weights,
+                edgeWeights);
+    }
+
+    // Updates share every array they do not change with the previous version; bounds are computed when null
+    private RouteGraph(TouristSpot[] spots, Map<String, Integer> ids, double[] latitudes, double[] longitudes,
+                       double[] bounds, int[] offsets, int[] targets, double[] weights, EdgeWeightIndex edgeWeights) {
+        this.spots = spots;
+        this.ids = ids;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edgeWeights = edgeWeights;
+        this.bounds = bounds != null ? bounds : computeBounds(latitudes, longitudes);
+    }
+
+    private static double[] coordinates(TouristSpot[] spots, boolean latitude) {
+        double[] values = new double[spots.length];
+        for (int i = 0; i < spots.length; i++) {
+            values[i] = latitude ? spots[i].getLatitude() : spots[i].getLongitude();
+        }
+        return values;
+    }
+
+    // One pass for all four extremes
+    private static double[] computeBounds(double[] latitudes, double[] longitudes) {
+        if (latitudes.length == 0) {
+            return new double[4];
+        }
+        double[] bounds = {latitudes[0], latitudes[0], longitudes[0], longitudes[0]};
+        for (int i = 1; i < latitudes.length; i++) {
+            bounds[0] = Math.min(bounds[0], latitudes[i]);
+            bounds[1] = Math.max(bounds[1], latitudes[i]);
+            bounds[2] = Math.min(bounds[2], longitudes[i]);
+            bounds[3] = Math.max(bounds[3], longitudes[i]);
+        }
+        return bounds;
+    }
+
+    public static RouteGraph build(Collection<TouristSpot> spotList, Collection<TouristConnection> connections) {
+        Map<String, Integer> ids = new HashMap<>(spotList.size() * 2);
+        List<TouristSpot> interned = new ArrayList<>(spotList);
+        for (int i = 0; i < interned.size(); i++) {
+            ids.put(interned.get(i).getName(), i);
+        }
+
+        // Duplicate rows collapse to their shortest recorded distance
+        EdgeWeightIndex edgeWeights = new EdgeWeightIndex(connections.size());
+        for (TouristConnection conn : connections) {
+            int source = intern(conn.getStart(), ids, interned);
+            int end = intern(conn.getEnd(), ids, interned);
+            if (source != end) {
+                edgeWeights.putMin(source, end, conn.getDistance());
+            }
+        }
+
+        // Every connection is stored in both directions
+        int[] offsets = new int[interned.size() + 1];
+        edgeWeights.forEach((a, b, distance) -> {
+            offsets[a + 1]++;
+            offsets[b + 1]++;
+        });
+        for (int v = 0; v < interned.size(); v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, interned.size());
+        int[] targets = new int[2 * edgeWeights.size()];
+        double[] weights = new double[2 * edgeWeights.size()];
+        edgeWeights.forEach((a, b, distance) -> {
+            int forward = next[a]++;
+            targets[forward] = b;
+            weights[forward] = distance;
+            int backward = next[b]++;
+            targets[backward] = a;
+            weights[backward] = distance;
+        });
+
+        return new RouteGraph(interned.toArray(new TouristSpot[0]), ids, offsets, targets, weights, edgeWeights);
+    }
+
+    // Rebuilds a graph from its CSR arrays, e.g. when reading a snapshot; arcs must come in both directions
+    static RouteGraph fromArrays(TouristSpot[] spots, int[] offsets, int[] targets, double[] weights) {
+        Map<String, Integer> ids = new HashMap<>(spots.length * 2);
+        for (int i = 0; i < spots.length; i++) {
+            ids.put(spots[i].getName(), i);
+        }
+        EdgeWeightIndex edgeWeights = new EdgeWeightIndex(targets.length / 2);
+        for (int v = 0; v < spots.length; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (v < targets[e]) {
+                    edgeWeights.putMin(v, targets[e], weights[e]);
+                }
+            }
+        }
+        return new RouteGraph(spots, ids, offsets, targets, weights, edgeWeights);
+    }
+
+    private static int intern(TouristSpot spot, Map<String, Integer> ids, List<TouristSpot> interned) {
+        Integer id = ids.get(spot.getName());
+        if (id == null) {
+            id = interned.size();
+            ids.put(spot.getName(), id);
+            interned.add(spot);
+        }
+        return id;
+    }
+
+    // Changes whenever spots, coordinates or edges change; used to detect stale precomputed files
+    private long computeFingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < spots.length; i++) {
+            hash = (hash ^ spots[i].getName().hashCode()) * 0x100000001b3L;
+            hash = (hash ^ Double.doubleToLongBits(latitudes[i])) * 0x100000001b3L;
+            hash = (hash ^ Double.doubleToLongBits(longitudes[i])) * 0x100000001b3L;
+        }
+        for (int e = 0; e < targets.length; e++) {
+            hash = (hash ^ targets[e]) * 0x100000001b3L;
+            hash = (hash ^ Double.doubleToLongBits(weights[e])) * 0x100000001b3L;
+        }
+        for (int offset : offsets) {
+            hash = (hash ^ offset) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Only precomputed files need it, so live updates do not pay for hashing the whole graph
+    public long fingerprint() {
+        long hash = fingerprint;
+        if (hash == 0) {
+            hash = computeFingerprint();
+            fingerprint = hash;
+        }
+        return hash;
+    }
+
+    public double minLatitude() { return bounds[0]; }
+    public double maxLatitude() { return bounds[1]; }
+    public double minLongitude() { return bounds[2]; }
+    public double maxLongitude() { return bounds[3]; }
+
+    // Copy-on-write updates: each returns a new graph and leaves this one untouched for queries still using it
+
+    // Adds the connection, or changes its distance if the spots are already connected
+    public RouteGraph withConnection(TouristSpot a, TouristSpot b, double distance) {
+        int from = requireId(a);
+        int to = requireId(b);
+        if (from == to) {
+            throw new IllegalArgumentException("A connection needs two different spots: " + a.getName());
+        }
+        EdgeWeightIndex updatedWeights = edgeWeights.copy();
+        updatedWeights.put(from, to, distance);
+        if (!Double.isNaN(edgeWeights.get(from, to))) {
+            // Same adjacency, only the two arcs' weights change
+            double[] updated = weights.clone();
+            updated[arcOf(from, to)] = distance;
+            updated[arcOf(to, from)] = distance;
+            return new RouteGraph(spots, ids, latitudes, longitudes, bounds, offsets, targets, updated, updatedWeights);
+        }
+
+        // One new arc at the end of each endpoint's row
+        int[] updatedOffsets = new int[offsets.length];
+        int[] updatedTargets = new int[targets.length + 2];
+        double[] updatedArcWeights = new double[weights.length + 2];
+        int shift = 0;
+        for (int v = 0; v < spots.length; v++) {
+            updatedOffsets[v] = offsets[v] + shift;
+            int rowLength = offsets[v + 1] - offsets[v];
+            System.arraycopy(targets, offsets[v], updatedTargets, offsets[v] + shift, rowLength);
+            System.arraycopy(weights, offsets[v], updatedArcWeights, offsets[v] + shift, rowLength);
+            if (v == from || v == to) {
+                int arc = offsets[v + 1] + shift;
+                updatedTargets[arc] = v == from ? to : from;
+                updatedArcWeights[arc] = distance;
+                shift++;
+            }
+        }
+        updatedOffsets[spots.length] = targets.length + 2;
+        return new RouteGraph(spots, ids, latitudes, longitudes, bounds, updatedOffsets, updatedTargets,
+                updatedArcWeights, updatedWeights);
+    }
+
+    // Returns this graph unchanged when the spots are not connected
+    public RouteGraph withoutConnection(TouristSpot a, TouristSpot b) {
+        int from = idOf(a);
+        int to = idOf(b);
+        if (from < 0 || to < 0 || Double.isNaN(edgeWeights.get(from, to))) {
+            return this;
+        }
+        EdgeWeightIndex updatedWeights = edgeWeights.copy();
+        updatedWeights.remove(from, to);
+        int[] updatedOffsets = new int[offsets.length];
+        int[] updatedTargets = new int[targets.length - 2];
+        double[] updatedArcWeights = new double[weights.length - 2];
+        int next = 0;
+        for (int v = 0; v < spots.length; v++) {
+            updatedOffsets[v] = next;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if ((v == from && targets[e] == to) || (v == to && targets[e] == from)) {
+                    continue;
+                }
+                updatedTargets[next] = targets[e];
+                updatedArcWeights[next++] = weights[e];
+            }
+        }
+        updatedOffsets[spots.length] = next;
+        return new RouteGraph(spots, ids, latitudes, longitudes, bounds, updatedOffsets, updatedTargets,
+                updatedArcWeights, updatedWeights);
+    }
+
+    // Adds an unconnected spot with the next id; bounds grow without a rescan
+    public RouteGraph withSpot(TouristSpot spot) {
+        if (ids.containsKey(spot.getName())) {
+            throw new IllegalArgumentException("Spot already exists: " + spot.getName());
+        }
+        int id = spots.length;
+        TouristSpot[] updatedSpots = Arrays.copyOf(spots, id + 1);
+        updatedSpots[id] = spot;
+        Map<String, Integer> updatedIds = new HashMap<>(ids);
+        updatedIds.put(spot.getName(), id);
+        double[] updatedLatitudes = Arrays.copyOf(latitudes, id + 1);
+        double[] updatedLongitudes = Arrays.copyOf(longitudes, id + 1);
+        updatedLatitudes[id] = spot.getLatitude();
+        updatedLongitudes[id] = spot.getLongitude();
+        double[] updatedBounds = id == 0
+                ? new double[] {spot.getLatitude(), spot.getLatitude(), spot.getLongitude(), spot.getLongitude()}
+                : new double[] {Math.min(bounds[0], spot.getLatitude()), Math.max(bounds[1], spot.getLatitude()),
+                                Math.min(bounds[2], spot.getLongitude()), Math.max(bounds[3], spot.getLongitude())};
+        int[] updatedOffsets = Arrays.copyOf(offsets, offsets.length + 1);
+        updatedOffsets[id + 1] = targets.length;
+        return new RouteGraph(updatedSpots, updatedIds, updatedLatitudes, updatedLongitudes, updatedBounds,
+                updatedOffsets, targets, weights, edgeWeights);
+    }
+
+    // Removes the spot and its connections; later spots move down one id. Bounds are only rescanned when the
+    // spot lay on them. Returns this graph unchanged when the spot is unknown
+    public RouteGraph withoutSpot(TouristSpot spot) {
+        int removed = idOf(spot);
+        if (removed < 0) {
+            return this;
+        }
+        int n = spots.length - 1;
+        TouristSpot[] updatedSpots = new TouristSpot[n];
+        System.arraycopy(spots, 0, updatedSpots, 0, removed);
+        System.arraycopy(spots, removed + 1, updatedSpots, removed, n - removed);
+        double[] updatedLatitudes = new double[n];
+        double[] updatedLongitudes = new double[n];
+        System.arraycopy(latitudes, 0, updatedLatitudes, 0, removed);
+        System.arraycopy(latitudes, removed + 1, updatedLatitudes, removed, n - removed);
+        System.arraycopy(longitudes, 0, updatedLongitudes, 0, removed);
+        System.arraycopy(longitudes, removed + 1, updatedLongitudes, removed, n - removed);
+        Map<String, Integer> updatedIds = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            updatedIds.put(updatedSpots[i].getName(), i);
+        }
+
+        int degree = offsets[removed + 1] - offsets[removed];
+        int[] updatedOffsets = new int[n + 1];
+        int[] updatedTargets = new int[targets.length - 2 * degree];
+        double[] updatedArcWeights = new double[updatedTargets.length];
+        EdgeWeightIndex updatedWeights = new EdgeWeightIndex(updatedTargets.length / 2);
+        int next = 0;
+        for (int v = 0, id = 0; v < spots.length; v++) {
+            if (v == removed) {
+                continue;
+            }
+            updatedOffsets[id] = next;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (w == removed) {
+                    continue;
+                }
+                int target = w > removed ? w - 1 : w;
+                updatedTargets[next] = target;
+                updatedArcWeights[next++] = weights[e];
+                if (id < target) {
+                    updatedWeights.putMin(id, target, weights[e]);
+                }
+            }
+            id++;
+        }
+        updatedOffsets[n] = next;
+
+        double lat = latitudes[removed], lon = longitudes[removed];
+        boolean onBounds = lat == bounds[0] || lat == bounds[1] || lon == bounds[2] || lon == bounds[3];
+        return new RouteGraph(updatedSpots, updatedIds, updatedLatitudes, updatedLongitudes,
+                onBounds ? null : bounds, updatedOffsets, updatedTargets, updatedArcWeights, updatedWeights);
+    }
+
+    private int requireId(TouristSpot spot) {
+        int id = idOf(spot);
+        if (id < 0) {
+            throw new IllegalArgumentException("Unknown spot: " + spot.getName());
+        }
+        return id;
+    }
+
+    private int arcOf(int from, int to) {
+        for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+            if (targets[e] == to) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("No arc " + from + " -> " + to);
+    }
+
+    public int spotCount() { return spots.length; }
+    public int edgeCount() { return targets.length; }
+
+    public TouristSpot spot(int id) { return spots[id]; }
+
+    public int idOf(TouristSpot spot) {
+        Integer id = ids.get(spot.getName());
+        return id != null ? id : -1;
+    }
+
+    // Null when no spot has that name
+    public TouristSpot spot(String name) {
+        Integer id = ids.get(name);
+        return id != null ? spots[id] : null;
+    }
+
+    public double latitude(int id) { return latitudes[id]; }
+    public double longitude(int id) { return longitudes[id]; }
+
+    public int firstEdge(int spot) { return offsets[spot]; }
+    public int endEdge(int spot) { return offsets[spot + 1]; }
+    public int target(int edge) { return targets[edge]; }
+    public double weight(int edge) { return weights[edge]; }
+
+    // Direct connection distance, or NaN when the spots are not adjacent
+    public double distance(int a, int b) {
+        return edgeWeights.get(a, b);
+    }
+
+    public double distance(TouristSpot a, TouristSpot b) {
+        int from = idOf(a);
+        int to = idOf(b);
+        return from >= 0 && to >= 0 ? edgeWeights.get(from, to) : Double.NaN;
+    }
+
+    // Sums the hops of a route, skipping any pair that is not directly connected
+    public double pathDistance(List<TouristSpot> route) {
+        double total = 0;
+        for (int i = 0; i < route.size() - 1; i++) {
+            double hop = distance(route.get(i), route.get(i + 1));
+            if (!Double.isNaN(hop)) {
+                total += hop;
+            }
+        }
+        return total;
+    }
+
+    public double pathDistance(int[] path, int length) {
+        double total = 0;
+        for (int i = 0; i < length - 1; i++) {
+            double hop = edgeWeights.get(path[i], path[i + 1]);
+            if (!Double.isNaN(hop)) {
+                total += hop;
+            }
+        }
+        return total;
+    }
+
+    // One connection per distinct edge
+    public List<TouristConnection> connections() {
+        List<TouristConnection> connections = new ArrayList<>(targets.length / 2);
+        for (int v = 0; v < spots.length; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (v < targets[e]) {
+                    connections.add(new TouristConnection(spots[v], spots[targets[e]], weights[e]));
+                }
+            }
+        }
+        return connections;
+    }
+
+    public Map<String, TouristSpot> spotsByName() {
+        Map<String, TouristSpot> byName = new LinkedHashMap<>(spots.length * 2);
+        for (TouristSpot spot : spots) {
+            byName.put(spot.getName(), spot);
+        }
+        return byName;
+    }
+
+    public List<TouristSpot> toSpots(int[] path, int length) {
+        List<TouristSpot> route = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            route.add(spots[path[i]]);
+        }
+        return route;
+    }
+}
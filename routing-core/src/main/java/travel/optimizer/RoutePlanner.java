@@ -0,0 +1,183 @@
+package travel.optimizer;
+
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Route queries and path scoring shared by the Swing planner and the headless entry points.
+//
+// The graph can be edited while queries run: every update builds a new immutable RouteGraph and publishes it
+// together with its engine as one version, so a query that read a version sees it consistently to the end.
+class RoutePlanner {
+    private volatile Version current;
+    private final List<Consumer<GraphChange>> listeners = new CopyOnWriteArrayList<>();
+
+    public RoutePlanner(Collection<TouristSpot> spots, Collection<TouristConnection> connections) {
+        this(RouteGraph.build(spots, connections));
+    }
+
+    public RoutePlanner(RouteGraph graph) {
+        this.current = new Version(0, graph, new ShortestPathEngine(graph), null, null);
+    }
+
+    public RouteGraph graph() { return current.graph; }
+    public ShortestPathEngine engine() { return current.engine; }
+    public long version() { return current.number; }
+
+    // Used for best-path queries once attached; ignored if the graph has changed since it was built from it
+    public synchronized void attachDistanceMatrix(DistanceMatrix matrix) {
+        Version version = current;
+        if (matrix.graph() == version.graph) {
+            current = new Version(version.number, version.graph, version.engine, matrix, version.hierarchy);
+            RoutingMetrics.INSTANCE.distanceMatrixAttached(matrix);
+        }
+    }
+
+    // Same for graphs too large for a distance matrix; a matrix, if both are attached, is used first
+    public synchronized void attachContractionHierarchy(ContractionHierarchy hierarchy) {
+        Version version = current;
+        if (hierarchy.graph() == version.graph) {
+            current = new Version(version.number, version.graph, version.engine, version.matrix, hierarchy);
+            RoutingMetrics.INSTANCE.hierarchyAttached(hierarchy);
+        }
+    }
+
+    // A best path with the graph version it was found on, for callers that go on to describe it
+    record BestPath(List<TouristSpot> route, RouteGraph graph) {
+    }
+
+    public List<TouristSpot> findBestPath(TouristSpot start, TouristSpot end) {
+        return findBestPathWithGraph(start, end).route();
+    }
+
+    public BestPath findBestPathWithGraph(TouristSpot start, TouristSpot end) {
+        RouteQueryEvent event = RoutingMetrics.beginQuery(RoutingMetrics.Operation.BEST_PATH);
+        Version version = current;
+        List<TouristSpot> route = bestPath(version, start, end);
+        RoutingMetrics.INSTANCE.endQuery(event, start, end, route.isEmpty() ? 0 : 1);
+        return new BestPath(route, version.graph);
+    }
+
+    // Empty list if no path found
+    private static List<TouristSpot> bestPath(Version version, TouristSpot start, TouristSpot end) {
+        if (version.matrix != null) {
+            return version.matrix.route(start, end);
+        } else if (version.hierarchy != null) {
+            return version.hierarchy.route(start, end);
+        }
+        return version.engine.aStar(start, end);
+    }
+
+    // Pareto-optimal routes over distance, stops and average rating, within the default detour and label bounds
+    public ParetoRouter.Frontier paretoRoutes(TouristSpot start, TouristSpot end, RatingStore ratings) {
+        RouteQueryEvent event = RoutingMetrics.beginQuery(RoutingMetrics.Operation.PARETO);
+        Version version = current;
+        List<TouristSpot> shortest = bestPath(version, start, end);
+        ParetoRouter.Frontier frontier = new ParetoRouter(version.graph, version.engine, ratings)
+                .routes(shortest, ParetoRouter.DEFAULT_MAX_DETOUR, ParetoRouter.DEFAULT_MAX_LABELS);
+        RoutingMetrics.INSTANCE.endQuery(event, start, end, frontier.routes().size());
+        return frontier;
+    }
+
+    // Every spot within budget km of the nearest start, sorted by distance
+    public List<Reachability.Reach> reachable(Collection<TouristSpot> starts, double budget) {
+        if (starts.isEmpty()) {
+            return List.of();
+        }
+        TouristSpot first = starts.iterator().next();
+        RouteQueryEvent event = RoutingMetrics.beginQuery(RoutingMetrics.Operation.REACHABLE);
+        List<Reachability.Reach> reachable = new Reachability(current.graph).within(starts, budget);
+        RoutingMetrics.INSTANCE.endQuery(event, first, first, reachable.size());
+        return reachable;
+    }
+
+    public KShortestPaths shortestPaths(TouristSpot start, TouristSpot end) {
+        Version version = current;
+        return new KShortestPaths(version.graph, version.engine, start, end);
+    }
+
+    public double calculateTotalDistance(List<TouristSpot> route) {
+        return current.graph.pathDistance(route);
+    }
+
+    // Called after every update, on the updating thread
+    public void addChangeListener(Consumer<GraphChange> listener) {
+        listeners.add(listener);
+    }
+
+    // Adds the connection, or changes its distance if the spots are already connected
+    public synchronized GraphChange addConnection(TouristConnection connection) {
+        return putConnection(connection.getStart(), connection.getEnd(), connection.getDistance());
+    }
+
+    // Throws IllegalArgumentException if the spots are not connected
+    public synchronized GraphChange reweightConnection(TouristSpot a, TouristSpot b, double distance) {
+        if (Double.isNaN(current.graph.distance(a, b))) {
+            throw new IllegalArgumentException("No connection between " + a.getName() + " and " + b.getName());
+        }
+        return putConnection(a, b, distance);
+    }
+
+    // Returns null if the spots were not connected
+    public synchronized GraphChange removeConnection(TouristSpot a, TouristSpot b) {
+        Version version = current;
+        double oldDistance = version.graph.distance(a, b);
+        if (Double.isNaN(oldDistance)) {
+            return null;
+        }
+        RouteGraph graph = version.graph.withoutConnection(a, b);
+        ShortestPathEngine engine = version.engine.updated(graph);
+        return publish(GraphChange.connection(version.number + 1, graph, engine, a, b, oldDistance, Double.NaN));
+    }
+
+    // Throws IllegalArgumentException if a spot with the same name exists
+    public synchronized GraphChange addSpot(TouristSpot spot) {
+        Version version = current;
+        RouteGraph graph = version.graph.withSpot(spot);
+        return publish(GraphChange.spotAdded(version.number + 1, graph, version.engine.updated(graph), spot));
+    }
+
+    // Removes the spot with all its connections; returns null if it is unknown
+    public synchronized GraphChange removeSpot(TouristSpot spot) {
+        Version version = current;
+        int id = version.graph.idOf(spot);
+        if (id < 0) {
+            return null;
+        }
+        List<TouristSpot> neighbours = new ArrayList<>();
+        for (int e = version.graph.firstEdge(id); e < version.graph.endEdge(id); e++) {
+            neighbours.add(version.graph.spot(version.graph.target(e)));
+        }
+        RouteGraph graph = version.graph.withoutSpot(spot);
+        return publish(GraphChange.spotRemoved(version.number + 1, graph, version.engine.updated(graph), spot,
+                neighbours));
+    }
+
+    private GraphChange putConnection(TouristSpot a, TouristSpot b, double distance) {
+        if (!(distance >= 0) || Double.isInfinite(distance)) {
+            throw new IllegalArgumentException("Invalid distance " + distance);
+        }
+        Version version = current;
+        double oldDistance = version.graph.distance(a, b);
+        RouteGraph graph = version.graph.withConnection(a, b, distance);
+        ShortestPathEngine engine = version.engine.updated(graph, a, b, distance);
+        return publish(GraphChange.connection(version.number + 1, graph, engine, a, b, oldDistance, distance));
+    }
+
+    // The distance matrix and hierarchy belong to the old graph, so best-path queries use the engine until new
+    // ones are attached
+    private GraphChange publish(GraphChange change) {
+        current = new Version(change.version(), change.graph(), change.engine(), null, null);
+        RoutingMetrics.INSTANCE.graphChanged(change.graph());
+        for (Consumer<GraphChange> listener : listeners) {
+            listener.accept(change);
+        }
+        return change;
+    }
+
+    // Graph, engine, distance matrix and hierarchy that belong together; queries read one version and stick to it
+    private record Version(long number, RouteGraph graph, ShortestPathEngine engine, DistanceMatrix matrix,
+                           ContractionHierarchy hierarchy) {
+    }
+}
@@ -0,0 +1,32 @@
+package travel.optimizer;
+
+import jdk.jfr.*;
+
+// One route search, recorded through RoutingMetrics. Only slow ones are kept by default, and without stack
+// traces, so the event can stay enabled in production recordings.
+@Name("travel.optimizer.RouteQuery")
+@Label("Route Query")
+@Category("Travel Optimizer")
+@Threshold("1 ms")
+@StackTrace(false)
+class RouteQueryEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Start")
+    String start;
+
+    @Label("End")
+    String end;
+
+    @Label("Nodes Expanded")
+    long nodesExpanded;
+
+    @Label("Paths")
+    long paths;
+
+    // Bookkeeping for RoutingMetrics; transient fields are not recorded
+    transient RoutingMetrics.Operation kind;
+    transient long startNanos;
+    transient long expandedBefore;
+}
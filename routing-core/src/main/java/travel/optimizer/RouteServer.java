@@ -0,0 +1,204 @@
+package travel.optimizer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// Local JSON route service: /spots, /route?from=&to= and /paths?from=&to=&k=, one virtual thread per exchange.
+public class RouteServer {
+    private static final int DEFAULT_PATHS = 10;
+    private static final int MAX_PATHS = 100;
+
+    // Spots are looked up on the planner's current graph, so edits made while the server runs are served
+    private final RoutePlanner planner;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public RouteServer(RoutePlanner planner, int port) throws IOException {
+        this.planner = planner;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/spots", this::handleSpots);
+        server.createContext("/route", this::handleRoute);
+        server.createContext("/paths", this::handlePaths);
+    }
+
+    public void start() { server.start(); }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // The bound port, useful when the server was created with port 0
+    public int port() { return server.getAddress().getPort(); }
+
+    private void handleSpots(HttpExchange exchange) throws IOException {
+        try (JsonWriter json = begin(exchange, 200)) {
+            json.beginArray();
+            RouteGraph graph = planner.graph();
+            for (int id = 0; id < graph.spotCount(); id++) {
+                TouristSpot spot = graph.spot(id);
+                json.beginObject()
+                    .name("name").value(spot.getName())
+                    .name("latitude").value(spot.getLatitude())
+                    .name("longitude").value(spot.getLongitude())
+                    .endObject();
+            }
+            json.endArray();
+        }
+    }
+
+    private void handleRoute(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParams(exchange);
+        RouteGraph graph = planner.graph();
+        TouristSpot start = graph.spot(params.get("from"));
+        TouristSpot end = graph.spot(params.get("to"));
+        if (start == null || end == null) {
+            sendError(exchange, 404, "Unknown spot; expected /route?from=<name>&to=<name>");
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<TouristSpot> route = (List<TouristSpot>) coalesce("route|" + planner.version() + "|" + start.getName() + "|" + end.getName(),
+                () -> planner.findBestPath(start, end));
+        if (route.isEmpty()) {
+            sendError(exchange, 404, "No route found");
+            return;
+        }
+        try (JsonWriter json = begin(exchange, 200)) {
+            json.beginObject()
+                .name("from").value(start.getName())
+                .name("to").value(end.getName());
+            writeRoute(json, route);
+            json.endObject();
+        }
+    }
+
+    private void handlePaths(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParams(exchange);
+        RouteGraph graph = planner.graph();
+        TouristSpot start = graph.spot(params.get("from"));
+        TouristSpot end = graph.spot(params.get("to"));
+        if (start == null || end == null) {
+            sendError(exchange, 404, "Unknown spot; expected /paths?from=<name>&to=<name>&k=<count>");
+            return;
+        }
+        int k;
+        try {
+            k = params.containsKey("k") ? Integer.parseInt(params.get("k")) : DEFAULT_PATHS;
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "k must be a number");
+            return;
+        }
+        int count = Math.max(1, Math.min(k, MAX_PATHS));
+
+        @SuppressWarnings("unchecked")
+        List<List<TouristSpot>> paths = (List<List<TouristSpot>>) coalesce(
+                "paths|" + planner.version() + "|" + start.getName() + "|" + end.getName() + "|" + count,
+                () -> planner.shortestPaths(start, end).nextPage(count));
+        try (JsonWriter json = begin(exchange, 200)) {
+            json.beginObject()
+                .name("from").value(start.getName())
+                .name("to").value(end.getName())
+                .name("paths").beginArray();
+            for (List<TouristSpot> route : paths) {
+                json.beginObject();
+                writeRoute(json, route);
+                json.endObject();
+            }
+            json.endArray().endObject();
+        }
+    }
+
+    // Identical queries that arrive while one is being computed share its result; keys carry the graph version,
+    // so a query made after an edit never gets an answer computed before it. Whatever the computation
+    // throws, Errors included, is handed to them, or they would wait forever
+    Object coalesce(String key, Supplier<Object> computation) throws IOException {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing == null) {
+            try {
+                mine.complete(computation.get());
+            } catch (Throwable e) {
+                mine.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, mine);
+            }
+            existing = mine;
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + key);
+        } catch (ExecutionException e) {
+            throw new IOException("Route computation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void writeRoute(JsonWriter json, List<TouristSpot> route) throws IOException {
+        json.name("distance").value(planner.calculateTotalDistance(route))
+            .name("route").beginArray();
+        for (TouristSpot spot : route) {
+            json.value(spot.getName());
+        }
+        json.endArray();
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                           URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    // Chunked response so the body is streamed rather than assembled in memory
+    private static JsonWriter begin(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (JsonWriter json = begin(exchange, status)) {
+            json.beginObject().name("error").value(message).endObject();
+        }
+    }
+
+    // Usage: RouteServer [port] [loc.csv] [con2.csv]
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        RoutingMetrics.register();
+        TravelData data = TravelData.load(new CsvDataSource(
+                Paths.get(args.length > 1 ? args[1] : "loc.csv"),
+                Paths.get(args.length > 2 ? args[2] : "con2.csv")));
+        RoutePlanner planner = new RoutePlanner(data.getSpots().values(), data.getConnections());
+
+        RouteServer server = new RouteServer(planner, port);
+        server.start();
+        System.out.println("Route service listening on http://localhost:" + server.port());
+    }
+}
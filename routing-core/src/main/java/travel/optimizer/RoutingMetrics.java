@@ -0,0 +1,234 @@
+package travel.optimizer;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Process-wide load, query, render and index build metrics: latency histograms per operation plus search
+// effort and route cache counters, published over JMX by register(), with a JFR event per load and slow query.
+// Recording costs a few LongAdder increments and a thread-local read, and the events are only filled in when a
+// recording wants them, so it all stays on in production.
+final class RoutingMetrics implements RoutingMetricsMXBean {
+    enum Operation { LOAD, BEST_PATH, PATHS_PAGE, ENUMERATE, PARETO, REACHABLE, RENDER_FRAME, RENDER_LAYER,
+        PRECOMPUTE_MATRIX, BUILD_HIERARCHY }
+
+    static final RoutingMetrics INSTANCE = new RoutingMetrics();
+    private static final String OBJECT_NAME = "travel.optimizer:type=RoutingMetrics";
+
+    // Spots settled by searches on each thread, so a query can tell how many its own searches expanded
+    private static final ThreadLocal<long[]> expandedOnThread = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Histogram[] latencies = new Histogram[Operation.values().length];
+    private final LongAdder nodesExpanded = new LongAdder();
+    private final LongAdder pathsEnumerated = new LongAdder();
+    private volatile String lastLoadSource = "";
+    private volatile long lastLoadMillis;
+    private volatile int spotCount;
+    private volatile int connectionCount;
+    private volatile long distanceMatrixBytes;
+    private volatile int hierarchyShortcuts;
+    private volatile RouteCache routeCache;
+
+    private RoutingMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Histogram();
+        }
+    }
+
+    // Publishes the metrics on the platform MBean server; later calls do nothing
+    static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already published
+        } catch (JMException e) {
+            System.err.println("Could not register routing metrics: " + e.getMessage());
+        }
+    }
+
+    // Called by ShortestPathEngine after every search
+    static void searched(int settled) {
+        expandedOnThread.get()[0] += settled;
+    }
+
+    static RouteQueryEvent beginQuery(Operation operation) {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.kind = operation;
+        event.expandedBefore = expandedOnThread.get()[0];
+        event.begin();
+        event.startNanos = System.nanoTime();
+        return event;
+    }
+
+    // Counts the spots settled on this thread since beginQuery
+    void endQuery(RouteQueryEvent event, TouristSpot start, TouristSpot end, long paths) {
+        endQuery(event, start, end, expandedOnThread.get()[0] - event.expandedBefore, paths);
+    }
+
+    // For queries whose searches run on other threads and count their own expansions
+    void endQuery(RouteQueryEvent event, TouristSpot start, TouristSpot end, long expanded, long paths) {
+        latencies[event.kind.ordinal()].record(System.nanoTime() - event.startNanos);
+        nodesExpanded.add(expanded);
+        pathsEnumerated.add(paths);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = event.kind.name();
+            event.start = start.getName();
+            event.end = end.getName();
+            event.nodesExpanded = expanded;
+            event.paths = paths;
+            event.commit();
+        }
+    }
+
+    static DataLoadEvent beginLoad() {
+        DataLoadEvent event = new DataLoadEvent();
+        event.begin();
+        event.startNanos = System.nanoTime();
+        return event;
+    }
+
+    // Returns the load time in nanoseconds
+    long endLoad(DataLoadEvent event, TravelDataSource source, TravelData data) {
+        long elapsed = record(Operation.LOAD, event.startNanos);
+        lastLoadSource = String.valueOf(source);
+        lastLoadMillis = elapsed / 1_000_000;
+        spotCount = data.getSpots().size();
+        connectionCount = data.getConnections().size();
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = lastLoadSource;
+            event.spots = spotCount;
+            event.connections = connectionCount;
+            event.commit();
+        }
+        return elapsed;
+    }
+
+    // Records the time since startNanos and returns it
+    long record(Operation operation, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        latencies[operation.ordinal()].record(elapsed);
+        return elapsed;
+    }
+
+    // Graph size after a live edit
+    void graphChanged(RouteGraph graph) {
+        spotCount = graph.spotCount();
+        connectionCount = graph.edgeCount() / 2; // Each connection is stored as an arc in both directions
+    }
+
+    void distanceMatrixAttached(DistanceMatrix matrix) {
+        distanceMatrixBytes = matrix.fileBytes();
+    }
+
+    void hierarchyAttached(ContractionHierarchy hierarchy) {
+        hierarchyShortcuts = hierarchy.shortcutCount();
+    }
+
+    // The cache whose hit and eviction counts are published; the latest one replaces any earlier
+    void track(RouteCache cache) {
+        routeCache = cache;
+    }
+
+    private RouteCache.Stats routeCacheStats() {
+        RouteCache cache = routeCache;
+        return cache == null ? new RouteCache.Stats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    @Override public String getLastLoadSource() { return lastLoadSource; }
+    @Override public long getLastLoadMillis() { return lastLoadMillis; }
+    @Override public int getSpotCount() { return spotCount; }
+    @Override public int getConnectionCount() { return connectionCount; }
+    @Override public long getNodesExpanded() { return nodesExpanded.sum(); }
+    @Override public long getPathsEnumerated() { return pathsEnumerated.sum(); }
+    @Override public long getDistanceMatrixBytes() { return distanceMatrixBytes; }
+    @Override public int getHierarchyShortcuts() { return hierarchyShortcuts; }
+    @Override public long getRouteCacheHits() { return routeCacheStats().hits(); }
+    @Override public long getRouteCacheMisses() { return routeCacheStats().misses(); }
+    @Override public long getRouteCacheEvictions() { return routeCacheStats().evictions(); }
+    @Override public long getRouteCacheInvalidations() { return routeCacheStats().invalidations(); }
+    @Override public int getRouteCacheSize() { return routeCacheStats().size(); }
+    @Override public double getRouteCacheHitRate() { return routeCacheStats().hitRate(); }
+
+    @Override
+    public Map<String, Latency> getLatencies() {
+        Map<String, Latency> snapshot = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            snapshot.put(operation.name(), latencies[operation.ordinal()].snapshot());
+        }
+        return snapshot;
+    }
+
+    public Latency latency(Operation operation) {
+        return latencies[operation.ordinal()].snapshot();
+    }
+
+    @Override
+    public void resetLatencies() {
+        for (Histogram histogram : latencies) {
+            histogram.reset();
+        }
+    }
+
+    // Power-of-two microsecond buckets: bucket b counts durations in [2^(b-1), 2^b) us, bucket 0 those under 1 us
+    private static final class Histogram {
+        private static final int BUCKETS = 40;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Histogram() {
+            for (int b = 0; b < BUCKETS; b++) {
+                buckets[b] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos / 1000));
+            buckets[bucket].increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        // Not atomic: concurrent records may land in some sums and not others, which only blurs the picture
+        Latency snapshot() {
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                counts[b] = buckets[b].sum();
+                count += counts[b];
+            }
+            long maxMicros = maxNanos.get() / 1000;
+            double mean = count == 0 ? 0 : totalNanos.sum() / 1000.0 / count;
+            return new Latency(count, mean, percentile(counts, count, 0.5, maxMicros),
+                    percentile(counts, count, 0.9, maxMicros), percentile(counts, count, 0.99, maxMicros), maxMicros);
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            totalNanos.reset();
+            maxNanos.reset();
+        }
+
+        private static long percentile(long[] counts, long count, double fraction, long maxMicros) {
+            long rank = (long) Math.ceil(count * fraction);
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += counts[b];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(1L << b, maxMicros);
+                }
+            }
+            return 0;
+        }
+    }
+}
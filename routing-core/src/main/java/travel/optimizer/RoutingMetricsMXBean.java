@@ -0,0 +1,68 @@
+package travel.optimizer;
+
+import java.util.Map;
+import javax.management.ConstructorParameters;
+
+// JMX view of RoutingMetrics, registered as travel.optimizer:type=RoutingMetrics. Public because JMX only
+// introspects public interfaces.
+public interface RoutingMetricsMXBean {
+    String getLastLoadSource();
+    long getLastLoadMillis();
+    int getSpotCount();
+    int getConnectionCount();
+
+    // Totals over every recorded query
+    long getNodesExpanded();
+    long getPathsEnumerated();
+
+    // Size of the distance matrix behind best-path queries, 0 while none is attached; their latency is BEST_PATH
+    long getDistanceMatrixBytes();
+    // Shortcuts in the contraction hierarchy behind best-path queries, 0 while none is attached
+    int getHierarchyShortcuts();
+
+    // The route cache being tracked, all 0 until there is one
+    long getRouteCacheHits();
+    long getRouteCacheMisses();
+    long getRouteCacheEvictions();
+    long getRouteCacheInvalidations();
+    int getRouteCacheSize();
+    double getRouteCacheHitRate();
+
+    // Keyed by operation name, e.g. BEST_PATH or RENDER_FRAME
+    Map<String, Latency> getLatencies();
+
+    void resetLatencies();
+
+    // Percentiles are the upper bound of their power-of-two histogram bucket, so within a factor of two
+    final class Latency {
+        private final long count;
+        private final double meanMicros;
+        private final long p50Micros;
+        private final long p90Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+
+        @ConstructorParameters({"count", "meanMicros", "p50Micros", "p90Micros", "p99Micros", "maxMicros"})
+        public Latency(long count, double meanMicros, long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p90Micros = p90Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() { return count; }
+        public double getMeanMicros() { return meanMicros; }
+        public long getP50Micros() { return p50Micros; }
+        public long getP90Micros() { return p90Micros; }
+        public long getP99Micros() { return p99Micros; }
+        public long getMaxMicros() { return maxMicros; }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.0fus p50=%dus p90=%dus p99=%dus max=%dus",
+                    count, meanMicros, p50Micros, p90Micros, p99Micros, maxMicros);
+        }
+    }
+}
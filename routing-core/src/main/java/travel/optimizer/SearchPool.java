@@ -0,0 +1,40 @@
+package travel.optimizer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Graph-sized search state shared by the threads that run queries. A query borrows a workspace and hands it
+// back, so short-lived threads, such as RouteServer's virtual thread per request, reuse warm workspaces instead
+// of each allocating its own as a ThreadLocal would. Only a few idle workspaces per core are kept; any beyond
+// that after a burst are left to the garbage collector.
+final class SearchPool<T> {
+    private static final int MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final Supplier<T> factory;
+    private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    SearchPool(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    T borrow() {
+        T workspace = idle.poll();
+        if (workspace == null) {
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        return workspace;
+    }
+
+    // The workspace must be reset first
+    void release(T workspace) {
+        if (idleCount.incrementAndGet() <= MAX_IDLE) {
+            idle.offer(workspace);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package travel.optimizer;
+
+import java.util.*;
+import java.util.List;
+
+// Single-pair shortest path search over the connection graph (Dijkstra, or A* with a haversine lower bound).
+class ShortestPathEngine {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final RouteGraph graph;
+    private final double heuristicScale;
+
+    public ShortestPathEngine(RouteGraph graph) {
+        this.graph = graph;
+
+        // Keep the heuristic admissible even if a recorded road distance is shorter than the straight line
+        double scale = 1.0;
+        for (int v = 0; v < graph.spotCount(); v++) {
+            for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                double straightLine = haversine(graph, v, graph.target(e));
+                if (straightLine > 0) {
+                    scale = Math.min(scale, graph.weight(e) / straightLine);
+                }
+            }
+        }
+        heuristicScale = Math.max(0, scale);
+    }
+
+    // For an updated graph: a scale that was admissible before stays admissible when connections are removed
+    // or lengthened, so only new or shortened ones have to be checked
+    ShortestPathEngine(RouteGraph graph, double heuristicScale) {
+        this.graph = graph;
+        this.heuristicScale = heuristicScale;
+    }
+
+    ShortestPathEngine updated(RouteGraph updatedGraph, TouristSpot a, TouristSpot b, double distance) {
+        double straightLine = haversine(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+        double scale = straightLine > 0 ? Math.min(heuristicScale, distance / straightLine) : heuristicScale;
+        return new ShortestPathEngine(updatedGraph, Math.max(0, scale));
+    }
+
+    ShortestPathEngine updated(RouteGraph updatedGraph) {
+        return new ShortestPathEngine(updatedGraph, heuristicScale);
+    }
+
+    public RouteGraph graph() { return graph; }
+
+    // Admissible lower bound on the route distance between two spots
+    public double lowerBound(TouristSpot a, TouristSpot b) {
+        return heuristicScale * haversine(a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude());
+    }
+
+    public List<TouristSpot> dijkstra(TouristSpot start, TouristSpot end) {
+        return search(start, end, false);
+    }
+
+    public List<TouristSpot> aStar(TouristSpot start, TouristSpot end) {
+        return search(start, end, true);
+    }
+
+    private List<TouristSpot> search(TouristSpot start, TouristSpot end, boolean useHeuristic) {
+        int source = graph.idOf(start);
+        int target = graph.idOf(end);
+        if (source < 0 || target < 0) {
+            return Collections.emptyList();
+        }
+        int[] path = shortestPath(source, target, useHeuristic);
+        return path != null ? graph.toSpots(path, path.length) : Collections.emptyList();
+    }
+
+    // Returns the spot ids from source to target, or null when the target is unreachable
+    public int[] shortestPath(int source, int target, boolean useHeuristic) {
+        return shortestPath(source, target, useHeuristic, null, null);
+    }
+
+    // Same search with some spots and edges (CSR arc ids) removed; either array may be null
+    public int[] shortestPath(int source, int target, boolean useHeuristic,
+                              boolean[] excludedSpots, boolean[] excludedEdges) {
+        int n = graph.spotCount();
+        double[] distances = new double[n];
+        int[] previous = new int[n];
+        run(source, target, useHeuristic, excludedSpots, excludedEdges, distances, previous);
+        return distances[target] < Double.POSITIVE_INFINITY ? buildPath(previous, target) : null;
+    }
+
+    // Full single-source Dijkstra; unreachable spots keep an infinite distance and a -1 predecessor
+    public void shortestPathTree(int source, double[] distances, int[] previous) {
+        run(source, -1, false, null, null, distances, previous);
+    }
+
+    // Stops once the target is settled; returns the number of spots settled, for RoutingMetrics
+    private int run(int source, int target, boolean useHeuristic, boolean[] excludedSpots,
+                        boolean[] excludedEdges, double[] distances, int[] previous) {
+        int n = graph.spotCount();
+        boolean[] settled = new boolean[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+
+        distances[source] = 0;
+        queue.push(source, useHeuristic ? estimate(source, target) : 0);
+
+        int expanded = 0;
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            settled[current] = true;
+            expanded++;
+            if (current == target) {
+                break;
+            }
+
+            double currentDistance = distances[current];
+            for (int e = graph.firstEdge(current); e < graph.endEdge(current); e++) {
+                int neighbor = graph.target(e);
+                if (settled[neighbor]
+                        || (excludedSpots != null && excludedSpots[neighbor])
+                        || (excludedEdges != null && excludedEdges[e])) {
+                    continue;
+                }
+                double candidate = currentDistance + graph.weight(e);
+                if (candidate < distances[neighbor]) {
+                    distances[neighbor] = candidate;
+                    previous[neighbor] = current;
+                    queue.push(neighbor, candidate + (useHeuristic ? estimate(neighbor, target) : 0));
+                }
+            }
+        }
+        RoutingMetrics.searched(expanded);
+        return expanded;
+    }
+
+    private static int[] buildPath(int[] previous, int target) {
+        int length = 0;
+        for (int v = target; v >= 0; v = previous[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; v >= 0; v = previous[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    private double estimate(int from, int to) {
+        return heuristicScale * haversine(graph, from, to);
+    }
+
+    static double haversine(RouteGraph graph, int a, int b) {
+        return haversine(graph.latitude(a), graph.longitude(a), graph.latitude(b), graph.longitude(b));
+    }
+
+    static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+}
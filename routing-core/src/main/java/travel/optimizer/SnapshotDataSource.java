@@ -0,0 +1,90 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Serves spots and connections from a graph snapshot, going back to the origin (database or CSV) only when
+// the snapshot is missing, corrupt or stale, and rewriting it afterwards. A snapshot is stale when the
+// origin's stamp changed or, for origins without a cheap change check, when it is older than maxAge.
+// Snapshots are stamped by the source that actually supplied the data, so a CSV fallback's edits are seen
+// even when the database in front of it has no stamp.
+class SnapshotDataSource implements TravelDataSource {
+    private final Path snapshotFile;
+    private final TravelDataSource origin;
+    private final Duration maxAge;
+    private String loadedFrom;
+
+    public SnapshotDataSource(Path snapshotFile, TravelDataSource origin, Duration maxAge) {
+        this.snapshotFile = snapshotFile;
+        this.origin = origin;
+        this.maxAge = maxAge;
+        this.loadedFrom = origin.toString();
+    }
+
+    @Override
+    public Map<String, TouristSpot> loadSpots() throws IOException, SQLException {
+        return load().getSpots();
+    }
+
+    @Override
+    public List<TouristConnection> loadConnections(Map<String, TouristSpot> spots) throws IOException, SQLException {
+        return load().getConnections();
+    }
+
+    // An origin that cannot even be stamped (its CSVs are gone, say) is unlikely to load either, so any
+    // snapshot that verifies is used as it is
+    @Override
+    public TravelData load() throws IOException, SQLException {
+        Long stamp = stampOrNull();
+        GraphSnapshot snapshot = GraphSnapshot.read(snapshotFile);
+        if (snapshot != null && (stamp == null || isFresh(snapshot, stamp))) {
+            RouteGraph graph = snapshot.graph();
+            loadedFrom = "snapshot " + snapshotFile;
+            return new TravelData(graph.spotsByName(), graph.connections(), graph);
+        }
+
+        TravelData data = origin.load();
+        loadedFrom = origin.toString();
+        // The load may have come from a source that can be stamped although the origin could not say so
+        // beforehand, such as the CSV fallback standing in for a database that is down
+        if (stamp == null || stamp == 0) {
+            stamp = stampOrNull();
+        }
+        try {
+            GraphSnapshot.write(data.routeGraph(), stamp == null ? 0 : stamp, snapshotFile);
+        } catch (IOException e) {
+            System.err.println("Could not write graph snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+        return data;
+    }
+
+    private Long stampOrNull() {
+        try {
+            return origin.stamp();
+        } catch (IOException e) {
+            System.err.println("Could not stamp " + origin + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isFresh(GraphSnapshot snapshot, long stamp) {
+        if (stamp != 0) {
+            return snapshot.sourceStamp() == stamp;
+        }
+        // Written from a source that reports changes while the origin cannot tell now, e.g. before a fallback has
+        // been tried; only a load shows whether that source changed
+        if (snapshot.sourceStamp() != 0) {
+            return false;
+        }
+        return System.currentTimeMillis() - snapshot.createdMillis() < maxAge.toMillis();
+    }
+
+    @Override
+    public String toString() {
+        return loadedFrom;
+    }
+}
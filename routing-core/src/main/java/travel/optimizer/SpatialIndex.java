@@ -0,0 +1,248 @@
+package travel.optimizer;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Static packed R-tree over item bounding boxes (points are zero-size boxes). Items are sorted along a
+// Hilbert curve and grouped NODE_SIZE at a time, level by level, into flat arrays: no per-node objects,
+// and window queries and nearest-item lookups only visit O(log n) nodes plus the hits.
+final class SpatialIndex {
+    private static final int NODE_SIZE = 16;
+    private static final int HILBERT_ORDER = 15;
+    private static final int HILBERT_MAX = (1 << HILBERT_ORDER) - 1;
+
+    private final int count;
+    private final double[] boxes; // minX, minY, maxX, maxY per node; leaves first, root last
+    private final int[] indices; // Leaf: item id. Internal node: position of its first child
+    private final int[] levelEnds; // Exclusive end position of each level, leaves first
+
+    private SpatialIndex(int count, double[] boxes, int[] indices, int[] levelEnds) {
+        this.count = count;
+        this.boxes = boxes;
+        this.indices = indices;
+        this.levelEnds = levelEnds;
+    }
+
+    public int size() { return count; }
+
+    public static SpatialIndex ofPoints(double[] xs, double[] ys) {
+        return of(xs, ys, xs, ys);
+    }
+
+    // Item i spans [minXs[i], maxXs[i]] x [minYs[i], maxYs[i]]
+    public static SpatialIndex of(double[] minXs, double[] minYs, double[] maxXs, double[] maxYs) {
+        int n = minXs.length;
+        int nodes = n;
+        int levels = 1;
+        for (int levelSize = n; levelSize > 1; levels++) {
+            levelSize = (levelSize + NODE_SIZE - 1) / NODE_SIZE;
+            nodes += levelSize;
+        }
+        double[] boxes = new double[Math.max(nodes, 1) * 4];
+        int[] indices = new int[Math.max(nodes, 1)];
+        int[] levelEnds = new int[levels];
+        if (n == 0) {
+            Arrays.fill(boxes, Double.NaN);
+            return new SpatialIndex(0, boxes, indices, new int[] {1});
+        }
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, minXs[i]);
+            minY = Math.min(minY, minYs[i]);
+            maxX = Math.max(maxX, maxXs[i]);
+            maxY = Math.max(maxY, maxYs[i]);
+        }
+        double xScale = maxX > minX ? HILBERT_MAX / (maxX - minX) : 0;
+        double yScale = maxY > minY ? HILBERT_MAX / (maxY - minY) : 0;
+
+        // Hilbert value in the high half, item id in the low half, so one primitive sort orders the leaves
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            int hx = (int) (((minXs[i] + maxXs[i]) / 2 - minX) * xScale);
+            int hy = (int) (((minYs[i] + maxYs[i]) / 2 - minY) * yScale);
+            order[i] = (long) hilbert(hx, hy) << 32 | i;
+        }
+        Arrays.sort(order);
+        for (int pos = 0; pos < n; pos++) {
+            int item = (int) order[pos];
+            indices[pos] = item;
+            boxes[pos * 4] = minXs[item];
+            boxes[pos * 4 + 1] = minYs[item];
+            boxes[pos * 4 + 2] = maxXs[item];
+            boxes[pos * 4 + 3] = maxYs[item];
+        }
+
+        levelEnds[0] = n;
+        int level = 0;
+        int start = 0;
+        int end = n;
+        int parent = n;
+        while (end - start > 1) {
+            for (int child = start; child < end; child += NODE_SIZE) {
+                double nodeMinX = Double.POSITIVE_INFINITY, nodeMinY = Double.POSITIVE_INFINITY;
+                double nodeMaxX = Double.NEGATIVE_INFINITY, nodeMaxY = Double.NEGATIVE_INFINITY;
+                for (int c = child, last = Math.min(child + NODE_SIZE, end); c < last; c++) {
+                    nodeMinX = Math.min(nodeMinX, boxes[c * 4]);
+                    nodeMinY = Math.min(nodeMinY, boxes[c * 4 + 1]);
+                    nodeMaxX = Math.max(nodeMaxX, boxes[c * 4 + 2]);
+                    nodeMaxY = Math.max(nodeMaxY, boxes[c * 4 + 3]);
+                }
+                boxes[parent * 4] = nodeMinX;
+                boxes[parent * 4 + 1] = nodeMinY;
+                boxes[parent * 4 + 2] = nodeMaxX;
+                boxes[parent * 4 + 3] = nodeMaxY;
+                indices[parent++] = child;
+            }
+            start = end;
+            end = parent;
+            levelEnds[++level] = end;
+        }
+        return new SpatialIndex(n, boxes, indices, levelEnds);
+    }
+
+    // Calls the consumer with every item whose box intersects the window
+    public void search(double minX, double minY, double maxX, double maxY, IntConsumer items) {
+        if (count == 0) {
+            return;
+        }
+        int[] stack = new int[levelEnds.length * NODE_SIZE];
+        int top = 0;
+        stack[top++] = root();
+        while (top > 0) {
+            int node = stack[--top];
+            if (boxes[node * 4] > maxX || boxes[node * 4 + 1] > maxY
+                    || boxes[node * 4 + 2] < minX || boxes[node * 4 + 3] < minY) {
+                continue;
+            }
+            if (node < count) {
+                items.accept(indices[node]);
+                continue;
+            }
+            int first = indices[node];
+            for (int child = first, last = childEnd(first); child < last; child++) {
+                stack[top++] = child;
+            }
+        }
+    }
+
+    // Item nearest to (x, y) under distance sqrt((dx * xScale)^2 + (dy * yScale)^2), so callers can measure in
+    // screen pixels; -1 if the index is empty or nothing lies within maxDistance
+    public int nearest(double x, double y, double xScale, double yScale, double maxDistance) {
+        if (count == 0) {
+            return -1;
+        }
+        double limit = maxDistance * maxDistance;
+        NodeQueue queue = new NodeQueue();
+        queue.push(root(), squaredDistance(root(), x, y, xScale, yScale));
+        while (!queue.isEmpty()) {
+            double distance = queue.peekKey();
+            int node = queue.poll();
+            if (distance > limit) {
+                return -1;
+            }
+            if (node < count) {
+                return indices[node];
+            }
+            int first = indices[node];
+            for (int child = first, last = childEnd(first); child < last; child++) {
+                queue.push(child, squaredDistance(child, x, y, xScale, yScale));
+            }
+        }
+        return -1;
+    }
+
+    private int root() {
+        return levelEnds[levelEnds.length - 1] - 1;
+    }
+
+    private int childEnd(int first) {
+        for (int end : levelEnds) {
+            if (first < end) {
+                return Math.min(first + NODE_SIZE, end);
+            }
+        }
+        return first;
+    }
+
+    private double squaredDistance(int node, double x, double y, double xScale, double yScale) {
+        double dx = (Math.max(boxes[node * 4], Math.min(x, boxes[node * 4 + 2])) - x) * xScale;
+        double dy = (Math.max(boxes[node * 4 + 1], Math.min(y, boxes[node * 4 + 3])) - y) * yScale;
+        return dx * dx + dy * dy;
+    }
+
+    // Position of (x, y) along a Hilbert curve over a 2^15 x 2^15 grid (fits in 30 bits)
+    private static int hilbert(int x, int y) {
+        int d = 0;
+        for (int s = 1 << (HILBERT_ORDER - 1); s > 0; s >>>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = HILBERT_MAX - x;
+                    y = HILBERT_MAX - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    // Growable binary min-heap of node positions; a nearest query only ever touches a handful of nodes
+    private static final class NodeQueue {
+        private int[] nodes = new int[64];
+        private double[] keys = new double[64];
+        private int size;
+
+        boolean isEmpty() { return size == 0; }
+        double peekKey() { return keys[0]; }
+
+        void push(int node, double key) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            keys[i] = key;
+        }
+
+        int poll() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            double lastKey = keys[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= lastKey) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            keys[i] = lastKey;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package travel.optimizer;
+
+class TouristConnection {
+    private TouristSpot start;
+    private TouristSpot end;
+    private double distance;
+
+    public TouristConnection(TouristSpot start, TouristSpot end, double distance) {
+        this.start = start;
+        this.end = end;
+        this.distance = distance;
+    }
+
+    public TouristSpot getStart() { return start; }
+    public TouristSpot getEnd() { return end; }
+    public double getDistance() { return distance; }
+}
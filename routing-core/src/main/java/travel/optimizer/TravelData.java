@@ -0,0 +1,44 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// Spots and connections as loaded from one data source.
+class TravelData {
+    private final Map<String, TouristSpot> spots;
+    private final List<TouristConnection> connections;
+    private RouteGraph routeGraph;
+
+    public TravelData(Map<String, TouristSpot> spots, List<TouristConnection> connections) {
+        this(spots, connections, null);
+    }
+
+    // Sources that already hold the graph (e.g. a snapshot) pass it along so it is not rebuilt
+    public TravelData(Map<String, TouristSpot> spots, List<TouristConnection> connections, RouteGraph routeGraph) {
+        this.spots = spots;
+        this.connections = connections;
+        this.routeGraph = routeGraph;
+    }
+
+    public Map<String, TouristSpot> getSpots() { return spots; }
+    public List<TouristConnection> getConnections() { return connections; }
+
+    public synchronized RouteGraph routeGraph() {
+        if (routeGraph == null) {
+            routeGraph = RouteGraph.build(spots.values(), connections);
+        }
+        return routeGraph;
+    }
+
+    // Loads and logs how long startup loading took
+    public static TravelData load(TravelDataSource source) throws IOException, SQLException {
+        DataLoadEvent event = RoutingMetrics.beginLoad();
+        TravelData data = source.load();
+        long elapsed = RoutingMetrics.INSTANCE.endLoad(event, source, data);
+        System.out.printf("Loaded %d spots and %d connections from %s in %.1f ms%n",
+                data.spots.size(), data.connections.size(), source, elapsed / 1e6);
+        return data;
+    }
+}
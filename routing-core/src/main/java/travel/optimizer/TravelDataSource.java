@@ -0,0 +1,25 @@
+package travel.optimizer;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+// Where tourist spots and their connections come from (database, CSV export, ...).
+interface TravelDataSource {
+    Map<String, TouristSpot> loadSpots() throws IOException, SQLException;
+
+    // Connections whose ends are missing from spots are skipped
+    List<TouristConnection> loadConnections(Map<String, TouristSpot> spots) throws IOException, SQLException;
+
+    // Sources that can read spots and connections concurrently override this
+    default TravelData load() throws IOException, SQLException {
+        Map<String, TouristSpot> spots = loadSpots();
+        return new TravelData(spots, loadConnections(spots));
+    }
+
+    // Cheap fingerprint of the underlying data that changes whenever it does; 0 when the source cannot tell
+    default long stamp() throws IOException {
+        return 0;
+    }
+}
@@ -0,0 +1,87 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContractionHierarchyTest {
+
+    @Test
+    void distancesAndPathsMatchDijkstra() {
+        for (long seed = 1; seed <= 3; seed++) {
+            RouteGraph graph = TestGraphs.graph(400, 300, seed);
+            assertMatchesDijkstra(graph, ContractionHierarchy.build(graph), seed);
+        }
+    }
+
+    // Two components, so half of the queries have no route
+    @Test
+    void unreachableSpotsHaveNoRoute() {
+        List<TouristSpot> spots = TestGraphs.spots(40, 5);
+        List<TouristConnection> connections = new ArrayList<>(
+                TestGraphs.connections(spots.subList(0, 20), 10, 5));
+        connections.addAll(TestGraphs.connections(spots.subList(20, 40), 10, 6));
+        RouteGraph graph = RouteGraph.build(spots, connections);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+
+        assertEquals(Double.POSITIVE_INFINITY, hierarchy.distance(0, 30));
+        assertNull(hierarchy.path(0, 30));
+        assertTrue(hierarchy.route(graph.spot(25), graph.spot(3)).isEmpty());
+        assertMatchesDijkstra(graph, hierarchy, 5);
+    }
+
+    @Test
+    void aWrittenHierarchyOpensOnlyForItsOwnGraph(@TempDir Path directory) throws IOException {
+        RouteGraph graph = TestGraphs.graph(200, 150, 9);
+        Path file = directory.resolve("hierarchy.bin");
+        ContractionHierarchy.build(graph).write(file);
+
+        ContractionHierarchy opened = ContractionHierarchy.open(graph, file);
+        assertNotNull(opened);
+        assertMatchesDijkstra(graph, opened, 9);
+
+        RouteGraph edited = graph.withConnection(graph.spot(0), graph.spot(1), 1.0);
+        assertNull(ContractionHierarchy.open(edited, file));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+        assertNull(ContractionHierarchy.open(graph, file));
+    }
+
+    private static void assertMatchesDijkstra(RouteGraph graph, ContractionHierarchy hierarchy, long seed) {
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        double[] distances = new double[graph.spotCount()];
+        int[] previous = new int[graph.spotCount()];
+        Random random = new Random(seed);
+        for (int query = 0; query < 20; query++) {
+            int source = random.nextInt(graph.spotCount());
+            engine.shortestPathTree(source, distances, previous);
+            for (int target = 0; target < graph.spotCount(); target++) {
+                double distance = hierarchy.distance(source, target);
+                int[] path = hierarchy.path(source, target);
+                if (distances[target] == Double.POSITIVE_INFINITY) {
+                    assertEquals(Double.POSITIVE_INFINITY, distance);
+                    assertNull(path);
+                    continue;
+                }
+                assertEquals(distances[target], distance, 1e-6, source + " -> " + target);
+                assertNotNull(path);
+                assertEquals(source, path[0]);
+                assertEquals(target, path[path.length - 1]);
+                // Every step is a real connection, so all shortcuts were expanded
+                assertEquals(distances[target], graph.pathDistance(path, path.length), 1e-6);
+                for (int i = 1; i < path.length; i++) {
+                    assertFalse(Double.isNaN(graph.distance(path[i - 1], path[i])));
+                }
+            }
+        }
+    }
+}
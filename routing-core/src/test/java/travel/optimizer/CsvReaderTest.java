@@ -0,0 +1,122 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvReaderTest {
+
+    // Plain decimals take the in-place path, the rest fall back to Double.parseDouble; both must agree with it
+    // to the last bit, and reject what it rejects
+    @Test
+    void parseDoubleMatchesDoubleParseDouble(@TempDir Path directory) throws IOException {
+        List<String> values = new ArrayList<>(List.of("0", "-0", "+0.0", "7", "5.", ".5", "-.25", "00012.50",
+                "30.316500", "78.0322", "123456789012345", "1234567890123456", "0.1234567890123456789012",
+                "1e3", "-2.5E-4", "9007199254740993", "0.30000000000000004", "179769313486231570e292", "NaN",
+                "Infinity", "-", ".", "", "1.2.3", "12a", "--1", "0x10"));
+        Random random = new Random(17);
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder value = new StringBuilder(random.nextInt(4) == 0 ? "-" : "");
+            int integerDigits = random.nextInt(10);
+            for (int d = 0; d < integerDigits; d++) {
+                value.append((char) ('0' + random.nextInt(10)));
+            }
+            if (integerDigits == 0 || random.nextBoolean()) {
+                value.append('.');
+                int fractionDigits = 1 + random.nextInt(24);
+                for (int d = 0; d < fractionDigits; d++) {
+                    value.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+            values.add(value.toString());
+        }
+        Path file = directory.resolve("numbers.csv");
+        StringBuilder rows = new StringBuilder();
+        for (String value : values) {
+            rows.append("x,").append(value).append('\n');
+        }
+        Files.writeString(file, rows, StandardCharsets.UTF_8);
+
+        try (CsvReader reader = new CsvReader(file)) {
+            for (String value : values) {
+                assertTrue(reader.next());
+                Double expected;
+                try {
+                    expected = Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    expected = null;
+                }
+                if (expected == null) {
+                    assertThrows(NumberFormatException.class, () -> reader.parseDouble(1), value);
+                } else {
+                    assertEquals(Double.doubleToRawLongBits(expected),
+                            Double.doubleToRawLongBits(reader.parseDouble(1)), value);
+                }
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndNewlines(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("quoted.csv");
+        Files.writeString(file, "Name,Note\n\"Har Ki Pauri, Haridwar\",\"says \"\"hi\"\"\"\n\n"
+                + "  plain  ,\"two\nlines\"\r\nlast,\n", StandardCharsets.UTF_8);
+
+        try (CsvReader reader = new CsvReader(file)) {
+            assertTrue(reader.next());
+            assertTrue(reader.fieldEquals(0, "Name"));
+            assertTrue(reader.next());
+            assertEquals("Har Ki Pauri, Haridwar", reader.string(0));
+            assertEquals("says \"hi\"", reader.string(1));
+            assertTrue(reader.isQuoted(1));
+            assertTrue(reader.next());
+            assertEquals("plain", reader.string(0));
+            assertEquals("two\nlines", reader.string(1));
+            assertEquals("plain".hashCode(), reader.hash(0));
+            assertTrue(reader.next());
+            assertEquals(2, reader.fieldCount());
+            assertEquals("last", reader.string(0));
+            assertEquals("", reader.string(1));
+            assertFalse(reader.next());
+        }
+    }
+
+    // Long rows of multi-byte characters fill the char buffer while the last bytes are still being decoded
+    @Test
+    void readsEveryRowOfLongMultiByteInput(@TempDir Path directory) throws IOException {
+        Random random = new Random(5);
+        char[] alphabet = {'a', 'é', '€', 'x', 'ह'};
+        for (int trial = 0; trial < 40; trial++) {
+            List<String> lines = new ArrayList<>();
+            int rows = 1 + random.nextInt(12);
+            for (int i = 0; i < rows; i++) {
+                StringBuilder line = new StringBuilder();
+                int length = 1 + random.nextInt(random.nextBoolean() ? 100_000 : 60);
+                for (int c = 0; c < length; c++) {
+                    line.append(alphabet[random.nextInt(alphabet.length)]);
+                }
+                lines.add(line.toString());
+            }
+            Path file = directory.resolve("long-" + trial + ".csv");
+            Files.writeString(file, String.join("\n", lines) + (random.nextBoolean() ? "\n" : ""),
+                    StandardCharsets.UTF_8);
+
+            List<String> read = new ArrayList<>();
+            try (CsvReader reader = new CsvReader(file)) {
+                while (reader.next()) {
+                    read.add(reader.string(0));
+                }
+            }
+            assertEquals(lines, read, "Trial " + trial);
+        }
+    }
+}
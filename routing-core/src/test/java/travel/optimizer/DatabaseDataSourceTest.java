@@ -0,0 +1,192 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// The MySQL schema on an in-memory H2 database
+class DatabaseDataSourceTest {
+    private static final String URL = "jdbc:h2:mem:travel";
+
+    private final List<TouristSpot> spots = TestGraphs.spots(50, 8);
+    private final List<TouristConnection> connections = TestGraphs.connections(spots, 40, 8);
+    private Connection keepAlive;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        // Names the CSV export has to quote
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < spots.size(); i++) {
+            positions.put(spots.get(i).getName(), i);
+        }
+        spots.set(3, new TouristSpot("Har Ki Pauri, Haridwar", 29.9557, 78.1709));
+        spots.set(4, new TouristSpot("\"Valley\" of Flowers", 30.7280, 79.6050));
+        connections.replaceAll(c -> new TouristConnection(spots.get(positions.get(c.getStart().getName())),
+                spots.get(positions.get(c.getEnd().getName())), c.getDistance()));
+
+        keepAlive = DriverManager.getConnection(URL, "sa", "");
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("CREATE TABLE TouristSpots (id INT PRIMARY KEY, name VARCHAR(100), "
+                    + "latitude DOUBLE, longitude DOUBLE)");
+            stmt.execute("CREATE TABLE Connections (source_id INT, target_id INT, distance DOUBLE)");
+        }
+        // Ids deliberately not row numbers
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO TouristSpots VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < spots.size(); i++) {
+                insert.setInt(1, 1000 + 7 * i);
+                insert.setString(2, spots.get(i).getName());
+                insert.setDouble(3, spots.get(i).getLatitude());
+                insert.setDouble(4, spots.get(i).getLongitude());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO Connections VALUES (?, ?, ?)")) {
+            for (TouristConnection conn : connections) {
+                insert.setInt(1, 1000 + 7 * index(conn.getStart()));
+                insert.setInt(2, 1000 + 7 * index(conn.getEnd()));
+                insert.setDouble(3, conn.getDistance());
+                insert.addBatch();
+            }
+            // A connection to a spot that is not in the table is left out
+            insert.setInt(1, 1000);
+            insert.setInt(2, 5);
+            insert.setDouble(3, 1.0);
+            insert.addBatch();
+            insert.executeBatch();
+        }
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        keepAlive.close();
+    }
+
+    @Test
+    void loadsSpotsAndConnections() throws Exception {
+        TravelData data = new DatabaseDataSource(URL, "sa", "", null).load();
+
+        assertSpots(data.getSpots());
+        assertConnections(data.getConnections());
+    }
+
+    @Test
+    void loadsTablesSeparately() throws Exception {
+        DatabaseDataSource source = new DatabaseDataSource(URL, "sa", "", null);
+        Map<String, TouristSpot> loaded = source.loadSpots();
+
+        assertSpots(loaded);
+        assertConnections(source.loadConnections(loaded));
+    }
+
+    // The export is what the offline fallback reads, so it must load back to the same data
+    @Test
+    void exportsCsvThatLoadsBackTheSame(@TempDir Path directory) throws Exception {
+        DatabaseDataSource source = new DatabaseDataSource(URL, "sa", "", directory);
+        TravelData data = source.load();
+        source.exportCompletion().get();
+
+        TravelData exported = new CsvDataSource(directory.resolve("loc.csv"), directory.resolve("con.csv")).load();
+        assertSpots(exported.getSpots());
+        assertEquals(adjacency(data.routeGraph()), adjacency(exported.routeGraph()));
+    }
+
+    // Loads in quick succession each start an export; none may clobber another's file or leave one behind
+    @Test
+    void overlappingExportsAllComplete(@TempDir Path directory) throws Exception {
+        DatabaseDataSource source = new DatabaseDataSource(URL, "sa", "", directory);
+        List<CompletableFuture<Void>> exports = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            source.load();
+            exports.add(source.exportCompletion());
+        }
+        for (CompletableFuture<Void> export : exports) {
+            export.get();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("con.csv", "loc.csv"), files.map(f -> f.getFileName().toString()).sorted().toList());
+        }
+        assertSpots(new CsvDataSource(directory.resolve("loc.csv"), directory.resolve("con.csv")).loadSpots());
+    }
+
+    // A row the export cannot write must fail the export rather than leave it pending
+    @Test
+    void aFailedExportCompletesExceptionally(@TempDir Path directory) throws Exception {
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("UPDATE TouristSpots SET name = NULL WHERE id = 1007");
+        }
+        DatabaseDataSource source = new DatabaseDataSource(URL, "sa", "", directory);
+        source.loadSpots();
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> source.exportCompletion().get(10, TimeUnit.SECONDS));
+        assertInstanceOf(NullPointerException.class, failure.getCause());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void failsWithoutTheSchema() {
+        DatabaseDataSource source = new DatabaseDataSource("jdbc:h2:mem:empty", "sa", "", null);
+
+        assertThrows(SQLException.class, source::load);
+    }
+
+    private void assertSpots(Map<String, TouristSpot> loaded) {
+        assertEquals(spots.stream().map(TouristSpot::getName).toList(), new ArrayList<>(loaded.keySet()));
+        for (TouristSpot spot : spots) {
+            assertEquals(spot.getLatitude(), loaded.get(spot.getName()).getLatitude());
+            assertEquals(spot.getLongitude(), loaded.get(spot.getName()).getLongitude());
+        }
+    }
+
+    private void assertConnections(List<TouristConnection> loaded) {
+        assertEquals(connections.size(), loaded.size());
+        for (int i = 0; i < connections.size(); i++) {
+            assertEquals(connections.get(i).getStart(), loaded.get(i).getStart());
+            assertEquals(connections.get(i).getEnd(), loaded.get(i).getEnd());
+            assertEquals(connections.get(i).getDistance(), loaded.get(i).getDistance());
+        }
+    }
+
+    private static List<String> adjacency(RouteGraph graph) {
+        List<String> arcs = new ArrayList<>();
+        for (TouristConnection conn : graph.connections()) {
+            arcs.add(conn.getStart().getName() + "|" + conn.getEnd().getName() + "|" + conn.getDistance());
+        }
+        arcs.sort(null);
+        return arcs;
+    }
+
+    private int index(TouristSpot spot) {
+        for (int i = 0; i < spots.size(); i++) {
+            if (spots.get(i).getName().equals(spot.getName())) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(spot.getName());
+    }
+}
@@ -0,0 +1,90 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DistanceMatrixTest {
+
+    // Two islands, so some pairs have no route at all
+    @Test
+    void everyPairMatchesDijkstra(@TempDir Path directory) throws IOException {
+        List<TouristSpot> spots = TestGraphs.spots(40, 6);
+        List<TouristConnection> connections = new ArrayList<>(TestGraphs.connections(spots.subList(0, 30), 25, 6));
+        connections.addAll(TestGraphs.connections(spots.subList(30, 40), 5, 7));
+        RouteGraph graph = RouteGraph.build(spots, connections);
+        DistanceMatrix matrix = DistanceMatrix.precompute(graph, directory.resolve("matrix.bin"));
+
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        int n = graph.spotCount();
+        double[] distances = new double[n];
+        int[] previous = new int[n];
+        for (int from = 0; from < n; from++) {
+            engine.shortestPathTree(from, distances, previous);
+            for (int to = 0; to < n; to++) {
+                assertEquals(distances[to], matrix.distance(from, to), 1e-9, from + " -> " + to);
+                int[] path = matrix.path(from, to);
+                if (Double.isInfinite(distances[to])) {
+                    assertNull(path);
+                    assertEquals(List.of(), matrix.route(graph.spot(from), graph.spot(to)));
+                    continue;
+                }
+                // The next-hop walk ends where it should and is as short as the distance says
+                assertEquals(from, path[0]);
+                assertEquals(to, path[path.length - 1]);
+                assertEquals(distances[to], graph.pathDistance(path, path.length), 1e-9);
+                assertEquals(graph.toSpots(path, path.length), matrix.route(graph.spot(from), graph.spot(to)));
+            }
+        }
+    }
+
+    @Test
+    void reopensTheFileItWrote(@TempDir Path directory) throws IOException {
+        RouteGraph graph = TestGraphs.graph(25, 20, 9);
+        Path file = directory.resolve("matrix.bin");
+        DistanceMatrix written = DistanceMatrix.precompute(graph, file);
+
+        DistanceMatrix read = DistanceMatrix.open(graph, file);
+        assertNotNull(read);
+        assertEquals(Files.size(file), read.fileBytes());
+        for (int from = 0; from < graph.spotCount(); from++) {
+            for (int to = 0; to < graph.spotCount(); to++) {
+                assertEquals(written.distance(from, to), read.distance(from, to));
+                assertArrayEquals(written.path(from, to), read.path(from, to));
+            }
+        }
+        assertFalse(Files.exists(directory.resolve("matrix.bin.tmp")));
+    }
+
+    // A matrix built for another graph, or a damaged one, is never used; openOrPrecompute then rebuilds it
+    @Test
+    void rejectsFilesThatDoNotMatchTheGraph(@TempDir Path directory) throws IOException {
+        RouteGraph graph = TestGraphs.graph(25, 20, 9);
+        Path file = directory.resolve("matrix.bin");
+        assertNull(DistanceMatrix.open(graph, file));
+        DistanceMatrix.precompute(graph, file);
+        byte[] good = Files.readAllBytes(file);
+
+        RouteGraph reweighted = graph.withConnection(graph.spot(0), graph.spot(1), 1.0);
+        assertNull(DistanceMatrix.open(reweighted, file));
+        assertNull(DistanceMatrix.open(TestGraphs.graph(24, 20, 9), file));
+
+        Files.write(file, Arrays.copyOf(good, good.length - 1));
+        assertNull(DistanceMatrix.open(graph, file));
+        byte[] badMagic = good.clone();
+        badMagic[0] ^= 1;
+        Files.write(file, badMagic);
+        assertNull(DistanceMatrix.open(graph, file));
+
+        DistanceMatrix rebuilt = DistanceMatrix.openOrPrecompute(reweighted, file);
+        assertEquals(1.0, rebuilt.distance(0, 1));
+        assertNotNull(DistanceMatrix.open(reweighted, file));
+    }
+}
@@ -0,0 +1,98 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class EdgeWeightIndexTest {
+
+    @Test
+    void pairsAreUndirectedAndKeepTheirShortestDistance() {
+        EdgeWeightIndex index = new EdgeWeightIndex(4);
+        index.putMin(3, 7, 12.5);
+        index.putMin(7, 3, 9.0);
+        index.putMin(3, 7, 11.0);
+
+        assertEquals(9.0, index.get(3, 7));
+        assertEquals(9.0, index.get(7, 3));
+        assertEquals(1, index.size());
+        assertTrue(Double.isNaN(index.get(3, 8)));
+    }
+
+    @Test
+    void putOverwritesALongerOrShorterDistance() {
+        EdgeWeightIndex index = new EdgeWeightIndex(4);
+        index.put(1, 2, 5.0);
+        index.put(2, 1, 8.0);
+
+        assertEquals(8.0, index.get(1, 2));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removingAMissingPairChangesNothing() {
+        EdgeWeightIndex index = new EdgeWeightIndex(4);
+        index.put(1, 2, 5.0);
+        index.remove(1, 3);
+        index.remove(4, 5);
+
+        assertEquals(1, index.size());
+        assertEquals(5.0, index.get(2, 1));
+    }
+
+    // Against a HashMap. A handful of spots keeps the table at a few slots, so probe chains often wrap past the
+    // end of the table and most removals land inside one
+    @Test
+    void backwardShiftDeletionKeepsEveryOtherPairReachable() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 500; trial++) {
+            int spots = 3 + random.nextInt(6);
+            EdgeWeightIndex index = new EdgeWeightIndex(2);
+            Map<Long, Double> expected = new HashMap<>();
+            for (int step = 0; step < 200; step++) {
+                int a = random.nextInt(spots);
+                int b = random.nextInt(spots);
+                if (random.nextInt(3) == 0) {
+                    index.remove(a, b);
+                    expected.remove(key(a, b));
+                } else {
+                    double distance = random.nextInt(1_000) / 10.0;
+                    index.put(a, b, distance);
+                    expected.put(key(a, b), distance);
+                }
+                assertEquals(expected.size(), index.size());
+                for (int x = 0; x < spots; x++) {
+                    for (int y = 0; y < spots; y++) {
+                        Double distance = expected.get(key(x, y));
+                        assertEquals(distance == null ? Double.NaN : distance, index.get(x, y), x + "-" + y);
+                    }
+                }
+            }
+            Map<Long, Double> visited = new HashMap<>();
+            index.forEach((a, b, distance) -> visited.put(key(a, b), distance));
+            assertEquals(expected, visited);
+        }
+    }
+
+    private static long key(int a, int b) {
+        return (long) Math.min(a, b) << 32 | Math.max(a, b);
+    }
+
+    @Test
+    void copiesAreIndependent() {
+        EdgeWeightIndex index = new EdgeWeightIndex(4);
+        index.put(1, 2, 5.0);
+        EdgeWeightIndex copy = index.copy();
+        copy.remove(1, 2);
+        copy.put(2, 3, 4.0);
+
+        assertEquals(5.0, index.get(1, 2));
+        assertTrue(Double.isNaN(index.get(2, 3)));
+        assertTrue(Double.isNaN(copy.get(1, 2)));
+        assertEquals(1, index.size());
+        assertEquals(1, copy.size());
+    }
+}
@@ -0,0 +1,131 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GraphChangeTest {
+    private static final double EPSILON = 1e-9;
+
+    // Whenever a change claims not to affect a route, that route must still exist and still be shortest
+    @Test
+    void unaffectedRoutesStayShortest() {
+        Random random = new Random(16);
+        int unaffected = 0;
+        for (long seed = 1; seed <= 10; seed++) {
+            RoutePlanner planner = new RoutePlanner(TestGraphs.graph(20, 8, seed));
+            for (int step = 0; step < 40; step++) {
+                RouteGraph before = planner.graph();
+                List<TouristSpot[]> pairs = new ArrayList<>();
+                List<List<TouristSpot>> routes = new ArrayList<>();
+                for (int i = 0; i < 30; i++) {
+                    TouristSpot start = before.spot(random.nextInt(before.spotCount()));
+                    TouristSpot end = before.spot(random.nextInt(before.spotCount()));
+                    if (!start.equals(end)) {
+                        pairs.add(new TouristSpot[] {start, end});
+                        routes.add(planner.findBestPath(start, end));
+                    }
+                }
+
+                GraphChange change = edit(planner, random, seed * 100 + step);
+                if (change == null) {
+                    continue;
+                }
+                RouteGraph after = change.graph();
+                for (int i = 0; i < pairs.size(); i++) {
+                    TouristSpot start = pairs.get(i)[0];
+                    TouristSpot end = pairs.get(i)[1];
+                    List<TouristSpot> route = routes.get(i);
+                    if (change.affects(start, end, route)) {
+                        continue;
+                    }
+                    unaffected++;
+                    List<TouristSpot> now = change.engine().dijkstra(start, end);
+                    String description = change.kind() + " " + start.getName() + " -> " + end.getName();
+                    if (route.isEmpty()) {
+                        assertTrue(now.isEmpty(), description);
+                    } else {
+                        assertFalse(now.isEmpty(), description);
+                        assertEquals(after.pathDistance(now), after.pathDistance(route), EPSILON, description);
+                        for (int s = 0; s + 1 < route.size(); s++) {
+                            assertFalse(Double.isNaN(after.distance(route.get(s), route.get(s + 1))), description);
+                        }
+                    }
+                }
+            }
+        }
+        // Most routes are far from any one edit, so the check has to have run plenty of times
+        assertTrue(unaffected > 1000, "Only " + unaffected + " unaffected routes");
+    }
+
+    @Test
+    void connectionChangesOnAndOffTheRoute() {
+        TouristSpot a = new TouristSpot("A", 30.0, 78.0);
+        TouristSpot b = new TouristSpot("B", 30.0, 78.1);
+        TouristSpot c = new TouristSpot("C", 30.0, 78.2);
+        TouristSpot far = new TouristSpot("Far", 31.0, 79.0);
+        RoutePlanner planner = new RoutePlanner(List.of(a, b, c, far), List.of(new TouristConnection(a, b, 10),
+                new TouristConnection(b, c, 10), new TouristConnection(c, far, 150)));
+        List<TouristSpot> route = planner.findBestPath(a, c);
+
+        assertTrue(planner.reweightConnection(a, b, 12).affects(a, c, route));
+        route = planner.findBestPath(a, c);
+        assertFalse(planner.reweightConnection(c, far, 200).affects(a, c, route));
+        // Straight from A to C is about 19.3 km, so a 30 km road cannot beat the 22 km route; a 20 km one can
+        assertFalse(planner.addConnection(new TouristConnection(a, c, 30)).affects(a, c, route));
+        assertTrue(planner.reweightConnection(a, c, 20).affects(a, c, route));
+        route = planner.findBestPath(a, c);
+        assertEquals(List.of(a, c), route);
+        assertFalse(planner.removeConnection(b, c).affects(a, c, route));
+        assertTrue(planner.removeConnection(a, c).affects(a, c, route));
+        // No route left, so any new road might make one
+        assertTrue(planner.addConnection(new TouristConnection(far, b, 140)).affects(a, c, List.of()));
+    }
+
+    @Test
+    void spotChangesOnlyAffectRoutesThroughOrToThem() {
+        TouristSpot a = new TouristSpot("A", 30.0, 78.0);
+        TouristSpot b = new TouristSpot("B", 30.0, 78.1);
+        TouristSpot c = new TouristSpot("C", 30.0, 78.2);
+        TouristSpot d = new TouristSpot("D", 30.1, 78.1);
+        RoutePlanner planner = new RoutePlanner(List.of(a, b, c, d), List.of(new TouristConnection(a, b, 10),
+                new TouristConnection(b, c, 10), new TouristConnection(b, d, 12)));
+        List<TouristSpot> route = planner.findBestPath(a, c);
+
+        TouristSpot e = new TouristSpot("E", 30.2, 78.2);
+        GraphChange added = planner.addSpot(e);
+        assertFalse(added.affects(a, c, route));
+        assertTrue(added.affects(a, e, List.of()));
+        assertArrayEquals(new double[] {30.2, 30.2, 78.2, 78.2}, added.extent());
+        assertFalse(planner.removeSpot(d).affects(a, c, route));
+        GraphChange removed = planner.removeSpot(b);
+        assertTrue(removed.affects(a, c, route));
+        assertArrayEquals(new double[] {30.0, 30.0, 78.0, 78.2}, removed.extent());
+    }
+
+    // One random edit: a new road, a changed or removed one, or a spot added or removed
+    private static GraphChange edit(RoutePlanner planner, Random random, long name) {
+        RouteGraph graph = planner.graph();
+        TouristSpot a = graph.spot(random.nextInt(graph.spotCount()));
+        TouristSpot b = graph.spot(random.nextInt(graph.spotCount()));
+        switch (random.nextInt(5)) {
+            case 0:
+                return a.equals(b) ? null : planner.addConnection(TestGraphs.road(a, b, random));
+            case 1: {
+                double distance = graph.distance(a, b);
+                return Double.isNaN(distance) ? null
+                        : planner.reweightConnection(a, b, distance * (0.5 + random.nextDouble()));
+            }
+            case 2:
+                return planner.removeConnection(a, b);
+            case 3:
+                return planner.addSpot(new TouristSpot("New " + name, 29 + 2 * random.nextDouble(),
+                        78 + 2 * random.nextDouble()));
+            default:
+                return graph.spotCount() > 5 ? planner.removeSpot(a) : null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GraphSnapshotTest {
+
+    @Test
+    void readsBackTheGraphItWrote(@TempDir Path directory) throws IOException {
+        RouteGraph graph = TestGraphs.graph(60, 50, 3);
+        // A name longer than the read buffer starts out
+        TouristSpot[] spots = new TouristSpot[graph.spotCount()];
+        int[] offsets = new int[graph.spotCount() + 1];
+        for (int v = 0; v < graph.spotCount(); v++) {
+            spots[v] = graph.spot(v);
+            offsets[v] = graph.firstEdge(v);
+        }
+        spots[7] = new TouristSpot("हर की पौड़ी ".repeat(40), spots[7].getLatitude(), spots[7].getLongitude());
+        offsets[graph.spotCount()] = graph.edgeCount();
+        int[] targets = new int[graph.edgeCount()];
+        double[] weights = new double[graph.edgeCount()];
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            targets[e] = graph.target(e);
+            weights[e] = graph.weight(e);
+        }
+        graph = RouteGraph.fromArrays(spots, offsets, targets, weights);
+        Path file = directory.resolve("graph.snapshot");
+
+        long before = System.currentTimeMillis();
+        GraphSnapshot.write(graph, 42, file);
+        GraphSnapshot snapshot = GraphSnapshot.read(file);
+
+        assertNotNull(snapshot);
+        assertEquals(42, snapshot.sourceStamp());
+        assertTrue(snapshot.createdMillis() >= before && snapshot.createdMillis() <= System.currentTimeMillis());
+        RouteGraph read = snapshot.graph();
+        assertEquals(graph.spotCount(), read.spotCount());
+        assertEquals(graph.edgeCount(), read.edgeCount());
+        for (int v = 0; v < graph.spotCount(); v++) {
+            assertEquals(graph.spot(v).getName(), read.spot(v).getName());
+            assertEquals(graph.latitude(v), read.latitude(v));
+            assertEquals(graph.longitude(v), read.longitude(v));
+            assertEquals(graph.firstEdge(v), read.firstEdge(v));
+            assertEquals(graph.endEdge(v), read.endEdge(v));
+        }
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            assertEquals(graph.target(e), read.target(e));
+            assertEquals(graph.weight(e), read.weight(e));
+        }
+        assertFalse(Files.exists(directory.resolve("graph.snapshot.tmp")));
+    }
+
+    @Test
+    void anEmptyGraphRoundTrips(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("graph.snapshot");
+        GraphSnapshot.write(TestGraphs.graph(0, 0, 1), 0, file);
+
+        assertEquals(0, GraphSnapshot.read(file).graph().spotCount());
+    }
+
+    // Every damaged file reads as missing, so the caller goes back to the origin
+    @Test
+    void rejectsMissingTruncatedAndCorruptFiles(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("graph.snapshot");
+        assertNull(GraphSnapshot.read(file));
+
+        GraphSnapshot.write(TestGraphs.graph(30, 20, 5), 7, file);
+        byte[] good = Files.readAllBytes(file);
+        int[] damaged = {0, 4, 8, 12, 16, 24, 40, 48, good.length / 2, good.length - 1};
+        for (int position : damaged) {
+            byte[] bytes = good.clone();
+            bytes[position] ^= 0x10;
+            Files.write(file, bytes);
+            assertNull(GraphSnapshot.read(file), "Byte " + position + " flipped");
+        }
+
+        Files.write(file, Arrays.copyOf(good, good.length - 8));
+        assertNull(GraphSnapshot.read(file));
+        Files.write(file, Arrays.copyOf(good, 20));
+        assertNull(GraphSnapshot.read(file));
+        Files.write(file, Arrays.copyOf(good, good.length + 4));
+        assertNull(GraphSnapshot.read(file));
+    }
+}
@@ -0,0 +1,139 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ItineraryOptimizerTest {
+    private static final double EPSILON = 1e-9;
+
+    // Asymmetric and non-metric matrices too, so the dynamic program cannot lean on the triangle inequality
+    @Test
+    void heldKarpMatchesBruteForce() {
+        Random random = new Random(9);
+        for (int trial = 0; trial < 200; trial++) {
+            int m = 1 + random.nextInt(8);
+            double[][] d = new double[m][m];
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < m; j++) {
+                    d[i][j] = i == j ? 0 : random.nextInt(trial % 2 == 0 ? 5 : 1000);
+                }
+            }
+            int[] order = ItineraryOptimizer.heldKarp(d);
+
+            assertPermutationFromStart(order, m);
+            assertEquals(bruteForce(d), ItineraryOptimizer.length(d, order), EPSILON, "Trial " + trial);
+        }
+    }
+
+    // Local search has no optimality guarantee, but on a handful of stops it should find the optimum
+    @Test
+    void localSearchFindsSmallOptimaAndKeepsTheStartFirst() {
+        Random random = new Random(10);
+        for (int trial = 0; trial < 20; trial++) {
+            int m = 4 + random.nextInt(5);
+            double[][] points = new double[m][];
+            for (int i = 0; i < m; i++) {
+                points[i] = new double[] {random.nextDouble() * 100, random.nextDouble() * 100};
+            }
+            double[][] d = new double[m][m];
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < m; j++) {
+                    d[i][j] = Math.hypot(points[i][0] - points[j][0], points[i][1] - points[j][1]);
+                }
+            }
+            int[] order = ItineraryOptimizer.localSearch(d, 50);
+
+            assertPermutationFromStart(order, m);
+            assertEquals(bruteForce(d), ItineraryOptimizer.length(d, order), 1e-6, "Trial " + trial);
+        }
+    }
+
+    @Test
+    void plansAWalkableItineraryOnTheGraph() {
+        RouteGraph graph = TestGraphs.graph(60, 40, 12);
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        ItineraryOptimizer optimizer = new ItineraryOptimizer(graph, engine);
+        List<TouristSpot> destinations = new ArrayList<>();
+        for (int id : new int[] {7, 19, 33, 41, 52, 58, 19}) {
+            destinations.add(graph.spot(id));
+        }
+
+        ItineraryOptimizer.Itinerary itinerary = optimizer.plan(graph.spot(0), destinations, 100);
+        assertTrue(itinerary.exact);
+        assertEquals(7, itinerary.stops.size());
+        assertEquals(graph.spot(0), itinerary.stops.get(0));
+        assertTrue(itinerary.stops.containsAll(destinations));
+        assertEquals(graph.spot(0), itinerary.route.get(0));
+        assertEquals(itinerary.stops.get(6), itinerary.route.get(itinerary.route.size() - 1));
+        assertTrue(itinerary.route.containsAll(itinerary.stops));
+        for (int i = 0; i + 1 < itinerary.route.size(); i++) {
+            assertFalse(Double.isNaN(graph.distance(itinerary.route.get(i), itinerary.route.get(i + 1))));
+        }
+        assertEquals(itinerary.totalDistance, graph.pathDistance(itinerary.route), 1e-6);
+
+        // No order may be shorter than the one chosen
+        double[][] d = new double[7][7];
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 7; j++) {
+                d[i][j] = graph.pathDistance(engine.dijkstra(itinerary.stops.get(i), itinerary.stops.get(j)));
+            }
+        }
+        int[] chosen = {0, 1, 2, 3, 4, 5, 6};
+        assertEquals(bruteForce(d), ItineraryOptimizer.length(d, chosen), 1e-6);
+    }
+
+    @Test
+    void unreachableStopsGiveNoItinerary() {
+        List<TouristSpot> spots = TestGraphs.spots(10, 3);
+        List<TouristConnection> connections = TestGraphs.connections(spots.subList(0, 8), 4, 3);
+        RouteGraph graph = RouteGraph.build(spots, connections);
+        ItineraryOptimizer optimizer = new ItineraryOptimizer(graph, new ShortestPathEngine(graph));
+
+        assertNull(optimizer.plan(spots.get(0), List.of(spots.get(3), spots.get(9)), 100));
+        assertNull(optimizer.plan(spots.get(0), List.of(new TouristSpot("Nowhere", 30, 79)), 100));
+        assertNotNull(optimizer.plan(spots.get(0), List.of(spots.get(3), spots.get(7)), 100));
+    }
+
+    private static void assertPermutationFromStart(int[] order, int m) {
+        assertEquals(m, order.length);
+        assertEquals(0, order[0]);
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < m; i++) {
+            assertEquals(i, sorted[i]);
+        }
+    }
+
+    // Shortest open path from stop 0 over every ordering of the rest
+    private static double bruteForce(double[][] d) {
+        int[] order = new int[d.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        return permute(d, order, 1);
+    }
+
+    private static double permute(double[][] d, int[] order, int position) {
+        if (position >= order.length - 1) {
+            return ItineraryOptimizer.length(d, order);
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = position; i < order.length; i++) {
+            swap(order, position, i);
+            best = Math.min(best, permute(d, order, position + 1));
+            swap(order, position, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int held = order[i];
+        order[i] = order[j];
+        order[j] = held;
+    }
+}
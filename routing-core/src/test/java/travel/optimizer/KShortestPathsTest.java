@@ -0,0 +1,91 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class KShortestPathsTest {
+
+    // Small enough graphs that every loopless path can be listed; Yen's must produce all of them, each once,
+    // in order of distance
+    @Test
+    void producesEveryLooplessPathInOrderOfDistance() {
+        for (long seed = 1; seed <= 20; seed++) {
+            RouteGraph graph = TestGraphs.graph(8, 6, seed);
+            ShortestPathEngine engine = new ShortestPathEngine(graph);
+            for (int source = 0; source < graph.spotCount(); source += 3) {
+                for (int target = 1; target < graph.spotCount(); target += 2) {
+                    if (source == target) {
+                        continue;
+                    }
+                    List<Double> expected = new ArrayList<>();
+                    boolean[] onPath = new boolean[graph.spotCount()];
+                    onPath[source] = true;
+                    allPaths(graph, source, target, 0, onPath, expected);
+                    expected.sort(null);
+
+                    KShortestPaths paths = new KShortestPaths(graph, engine, graph.spot(source), graph.spot(target));
+                    List<Double> actual = new ArrayList<>();
+                    Set<List<TouristSpot>> distinct = new HashSet<>();
+                    while (paths.hasNext()) {
+                        List<TouristSpot> path = paths.next();
+                        assertEquals(graph.spot(source), path.get(0));
+                        assertEquals(graph.spot(target), path.get(path.size() - 1));
+                        assertEquals(path.size(), new HashSet<>(path).size(), "Path revisits a spot: " + path);
+                        assertTrue(distinct.add(path), "Path produced twice: " + path);
+                        actual.add(graph.pathDistance(path));
+                    }
+                    assertEquals(expected.size(), actual.size());
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertEquals(expected.get(i), actual.get(i), 1e-9, "Path " + i);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void pagesContinueWhereTheLastOneStopped() {
+        RouteGraph graph = TestGraphs.graph(10, 10, 7);
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        List<List<TouristSpot>> all = new ArrayList<>();
+        new KShortestPaths(graph, engine, graph.spot(0), graph.spot(9)).forEachRemaining(all::add);
+
+        KShortestPaths paged = new KShortestPaths(graph, engine, graph.spot(0), graph.spot(9));
+        List<List<TouristSpot>> pages = new ArrayList<>();
+        for (List<List<TouristSpot>> page = paged.nextPage(3); !page.isEmpty(); page = paged.nextPage(3)) {
+            assertTrue(page.size() <= 3);
+            pages.addAll(page);
+        }
+        assertEquals(all, pages);
+    }
+
+    @Test
+    void unknownSpotsHaveNoPaths() {
+        RouteGraph graph = TestGraphs.graph(4, 0, 1);
+        KShortestPaths paths = new KShortestPaths(graph, new ShortestPathEngine(graph), graph.spot(0),
+                new TouristSpot("Nowhere", 30, 79));
+
+        assertFalse(paths.hasNext());
+    }
+
+    private static void allPaths(RouteGraph graph, int v, int target, double distance, boolean[] onPath,
+                                 List<Double> distances) {
+        if (v == target) {
+            distances.add(distance);
+            return;
+        }
+        for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+            int w = graph.target(e);
+            if (!onPath[w]) {
+                onPath[w] = true;
+                allPaths(graph, w, target, distance + graph.weight(e), onPath, distances);
+                onPath[w] = false;
+            }
+        }
+    }
+}
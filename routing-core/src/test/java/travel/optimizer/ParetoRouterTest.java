@@ -0,0 +1,134 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParetoRouterTest {
+    private static final double EPSILON = 1e-9;
+
+    // Ratings are coarse on purpose, so many routes tie on one criterion and only the others decide
+    @Test
+    void frontierMatchesEveryRouteWithinTheDetour(@TempDir Path directory) throws IOException {
+        Random random = new Random(21);
+        for (long seed = 1; seed <= 15; seed++) {
+            RouteGraph graph = TestGraphs.graph(14, 14, seed);
+            RatingStore ratings = RatingStore.open(directory.resolve("ratings-" + seed + ".csv"));
+            Map<String, Integer> rated = new HashMap<>();
+            for (int v = 0; v < graph.spotCount(); v++) {
+                if (random.nextInt(4) > 0) {
+                    rated.put(graph.spot(v).getName(), RatingStore.MIN_RATING + random.nextInt(RatingStore.MAX_RATING));
+                }
+            }
+            ratings.add(rated);
+            ShortestPathEngine engine = new ShortestPathEngine(graph);
+            ParetoRouter router = new ParetoRouter(graph, engine, ratings);
+
+            for (int query = 0; query < 10; query++) {
+                TouristSpot start = graph.spot(random.nextInt(graph.spotCount()));
+                TouristSpot end = graph.spot(random.nextInt(graph.spotCount()));
+                if (start.equals(end)) {
+                    continue;
+                }
+                List<TouristSpot> shortest = engine.dijkstra(start, end);
+                ParetoRouter.Frontier frontier = router.routes(shortest, 1.5, ParetoRouter.DEFAULT_MAX_LABELS);
+                assertTrue(frontier.complete());
+
+                double bound = graph.pathDistance(shortest) * 1.5 + 1e-9;
+                List<double[]> expected = bruteForceFrontier(graph, ratings, graph.idOf(start), graph.idOf(end), bound);
+                assertEquals(expected.size(), frontier.routes().size(), start.getName() + " -> " + end.getName());
+                for (ParetoRouter.Route route : frontier.routes()) {
+                    assertEquals(start, route.spots().get(0));
+                    assertEquals(end, route.spots().get(route.spots().size() - 1));
+                    assertEquals(graph.pathDistance(route.spots()), route.distance(), 1e-6);
+                    assertTrue(expected.removeIf(criteria -> Math.abs(criteria[0] - route.distance()) < 1e-6
+                            && criteria[1] == route.stops() && Math.abs(criteria[2] - route.averageRating()) < 1e-6),
+                            "Not on the frontier: " + route);
+                }
+            }
+        }
+    }
+
+    @Test
+    void routesAreSortedByDistanceAndStartWithTheShortest(@TempDir Path directory) throws IOException {
+        RouteGraph graph = TestGraphs.graph(30, 40, 4);
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        ParetoRouter router = new ParetoRouter(graph, engine, RatingStore.open(directory.resolve("ratings.csv")));
+        List<TouristSpot> shortest = engine.dijkstra(graph.spot(0), graph.spot(29));
+
+        List<ParetoRouter.Route> routes = router.routes(shortest, ParetoRouter.DEFAULT_MAX_DETOUR,
+                ParetoRouter.DEFAULT_MAX_LABELS).routes();
+        assertEquals(graph.pathDistance(shortest), routes.get(0).distance(), 1e-9);
+        for (int i = 1; i < routes.size(); i++) {
+            assertTrue(routes.get(i - 1).distance() <= routes.get(i).distance());
+        }
+    }
+
+    // A budget of a single label still returns the seeded shortest route, flagged as incomplete
+    @Test
+    void anExhaustedLabelBudgetIsReported(@TempDir Path directory) throws IOException {
+        RouteGraph graph = TestGraphs.graph(30, 40, 4);
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+        ParetoRouter router = new ParetoRouter(graph, engine, RatingStore.open(directory.resolve("ratings.csv")));
+        List<TouristSpot> shortest = engine.dijkstra(graph.spot(0), graph.spot(29));
+
+        ParetoRouter.Frontier frontier = router.routes(shortest, 2.0, 1);
+        assertFalse(frontier.complete());
+        assertEquals(shortest, frontier.routes().get(0).spots());
+    }
+
+    // Distance, stops and average rating of every non-dominated simple route within the bound
+    private static List<double[]> bruteForceFrontier(RouteGraph graph, RatingStore ratings, int start, int end,
+                                                     double bound) {
+        List<double[]> routes = new ArrayList<>();
+        boolean[] onPath = new boolean[graph.spotCount()];
+        onPath[start] = true;
+        search(graph, ratings, start, end, bound, 0, 1, shortfall(graph, ratings, start), onPath, routes);
+        List<double[]> frontier = new ArrayList<>();
+        for (double[] route : routes) {
+            boolean dominated = false;
+            for (double[] other : routes) {
+                boolean noWorse = other[0] <= route[0] + EPSILON && other[1] <= route[1]
+                        && other[2] >= route[2] - EPSILON;
+                boolean better = other[0] < route[0] - EPSILON || other[1] < route[1] || other[2] > route[2] + EPSILON;
+                dominated |= noWorse && better;
+            }
+            // Routes tying on all three criteria count once
+            if (!dominated && frontier.stream().noneMatch(kept -> Math.abs(kept[0] - route[0]) < EPSILON
+                    && kept[1] == route[1] && Math.abs(kept[2] - route[2]) < EPSILON)) {
+                frontier.add(route);
+            }
+        }
+        return frontier;
+    }
+
+    private static void search(RouteGraph graph, RatingStore ratings, int v, int end, double bound, double distance,
+                               int spots, double shortfall, boolean[] onPath, List<double[]> routes) {
+        if (v == end) {
+            routes.add(new double[] {distance, Math.max(0, spots - 2), RatingStore.MAX_RATING - shortfall / spots});
+            return;
+        }
+        for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+            int w = graph.target(e);
+            double next = distance + graph.weight(e);
+            if (!onPath[w] && next <= bound) {
+                onPath[w] = true;
+                search(graph, ratings, w, end, bound, next, spots + 1, shortfall + shortfall(graph, ratings, w),
+                        onPath, routes);
+                onPath[w] = false;
+            }
+        }
+    }
+
+    private static double shortfall(RouteGraph graph, RatingStore ratings, int spot) {
+        return RatingStore.MAX_RATING - ratings.score(graph.spot(spot));
+    }
+}
@@ -0,0 +1,88 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ReachabilityTest {
+
+    // Pooled workspaces are reused across graphs of different sizes, so stale state would show up as a wrong set
+    @Test
+    void matchesDijkstraFromEveryStart() {
+        Random random = new Random(22);
+        for (long seed = 1; seed <= 20; seed++) {
+            RouteGraph graph = TestGraphs.graph(10 + random.nextInt(40), random.nextInt(30), seed);
+            Reachability reachability = new Reachability(graph);
+            ShortestPathEngine engine = new ShortestPathEngine(graph);
+            for (int query = 0; query < 10; query++) {
+                List<TouristSpot> starts = new ArrayList<>();
+                for (int i = 1 + random.nextInt(3); i > 0; i--) {
+                    starts.add(graph.spot(random.nextInt(graph.spotCount())));
+                }
+                double budget = random.nextDouble() * 150;
+
+                Map<TouristSpot, Double> expected = bruteForce(graph, engine, starts, budget);
+                List<Reachability.Reach> reachable = reachability.within(starts, budget);
+                assertEquals(expected.size(), reachable.size(), "Seed " + seed + " query " + query);
+                for (int i = 0; i < reachable.size(); i++) {
+                    Reachability.Reach reach = reachable.get(i);
+                    assertEquals(expected.get(reach.spot()), reach.distance(), 1e-9, reach.spot().getName());
+                    if (i > 0) {
+                        assertTrue(reachable.get(i - 1).distance() <= reach.distance());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void edgeCasesOfTheBudgetAndStarts() {
+        TouristSpot a = new TouristSpot("A", 30.0, 78.0);
+        TouristSpot b = new TouristSpot("B", 30.1, 78.1);
+        TouristSpot c = new TouristSpot("C", 30.2, 78.2);
+        RouteGraph graph = RouteGraph.build(List.of(a, b, c),
+                List.of(new TouristConnection(a, b, 10), new TouristConnection(b, c, 10)));
+        Reachability reachability = new Reachability(graph);
+
+        assertEquals(List.of(new Reachability.Reach(a, 0)), reachability.within(List.of(a), 0));
+        assertEquals(List.of(new Reachability.Reach(a, 0), new Reachability.Reach(b, 10)),
+                reachability.within(List.of(a), 10));
+        assertEquals(List.of(), reachability.within(List.of(a), -1));
+        assertEquals(List.of(), reachability.within(List.of(), 100));
+        assertEquals(List.of(new Reachability.Reach(c, 0), new Reachability.Reach(b, 10)),
+                reachability.within(List.of(new TouristSpot("Nowhere", 30, 79), c), 15));
+        // A spot that is itself a start is reached at 0, not through another start
+        List<Reachability.Reach> fromBoth = reachability.within(List.of(a, c, a), 10);
+        assertEquals(3, fromBoth.size());
+        assertTrue(fromBoth.containsAll(List.of(new Reachability.Reach(a, 0), new Reachability.Reach(c, 0))));
+        assertEquals(new Reachability.Reach(b, 10), fromBoth.get(2));
+    }
+
+    private static Map<TouristSpot, Double> bruteForce(RouteGraph graph, ShortestPathEngine engine,
+                                                      List<TouristSpot> starts, double budget) {
+        int n = graph.spotCount();
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        double[] distances = new double[n];
+        int[] previous = new int[n];
+        for (TouristSpot start : starts) {
+            engine.shortestPathTree(graph.idOf(start), distances, previous);
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], distances[v]);
+            }
+        }
+        Map<TouristSpot, Double> within = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (nearest[v] <= budget) {
+                within.put(graph.spot(v), nearest[v]);
+            }
+        }
+        return within;
+    }
+}
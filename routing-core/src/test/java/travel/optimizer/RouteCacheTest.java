@@ -0,0 +1,126 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class RouteCacheTest {
+
+    // Edits that cannot change a cached route keep it; the rest drop it
+    @Test
+    void onlyAffectedEntriesAreInvalidated() {
+        TouristSpot a = new TouristSpot("A", 30.0, 78.0);
+        TouristSpot b = new TouristSpot("B", 30.0, 78.1);
+        TouristSpot c = new TouristSpot("C", 30.0, 78.2);
+        TouristSpot far = new TouristSpot("Far", 31.0, 79.0);
+        RoutePlanner planner = new RoutePlanner(List.of(a, b, c, far), List.of(new TouristConnection(a, b, 10),
+                new TouristConnection(b, c, 10), new TouristConnection(c, far, 150)));
+        RouteCache cache = new RouteCache(planner, 16);
+        AtomicInteger computed = new AtomicInteger();
+
+        assertEquals(List.of(a, b, c), best(cache, planner, a, c, computed));
+        planner.reweightConnection(c, far, 200);
+        assertEquals(List.of(a, b, c), best(cache, planner, a, c, computed));
+        assertEquals(1, computed.get());
+        assertEquals(0, cache.stats().invalidations());
+
+        planner.reweightConnection(a, b, 5);
+        assertEquals(List.of(a, b, c), best(cache, planner, a, c, computed));
+        assertEquals(2, computed.get());
+        assertEquals(1, cache.stats().invalidations());
+
+        planner.removeSpot(b);
+        assertEquals(List.of(), best(cache, planner, a, c, computed));
+        planner.addConnection(new TouristConnection(a, c, 25));
+        assertEquals(List.of(a, c), best(cache, planner, a, c, computed));
+        assertEquals(4, computed.get());
+    }
+
+    // A result whose computation overlapped an edit may describe the old graph, so it is not kept
+    @Test
+    void resultsComputedAcrossAnEditAreNotCached() {
+        RouteGraph graph = TestGraphs.graph(10, 10, 2);
+        RoutePlanner planner = new RoutePlanner(graph);
+        RouteCache cache = new RouteCache(planner, 16);
+        TouristSpot start = graph.spot(0);
+        TouristSpot end = graph.spot(9);
+
+        cache.get(start, end, RouteCache.Mode.BEST, 1, () -> {
+            List<TouristSpot> route = planner.findBestPath(start, end);
+            planner.removeConnection(route.get(0), route.get(1));
+            return new RouteCache.Result(List.of(route), null);
+        });
+        assertEquals(0, cache.stats().size());
+        assertEquals(planner.findBestPath(start, end),
+                best(cache, planner, start, end, new AtomicInteger()));
+    }
+
+    // Through any sequence of edits the cache answers exactly what a fresh search would
+    @Test
+    void cachedRoutesMatchFreshSearchesThroughEdits() {
+        Random random = new Random(17);
+        RoutePlanner planner = new RoutePlanner(TestGraphs.graph(25, 15, 8));
+        RouteCache cache = new RouteCache(planner, 64);
+        AtomicInteger computed = new AtomicInteger();
+        int lookups = 0;
+        for (int step = 0; step < 200; step++) {
+            RouteGraph graph = planner.graph();
+            TouristSpot a = graph.spot(random.nextInt(graph.spotCount()));
+            TouristSpot b = graph.spot(random.nextInt(graph.spotCount()));
+            if (a.equals(b)) {
+                continue;
+            }
+            if (random.nextInt(4) == 0) {
+                if (random.nextBoolean()) {
+                    planner.removeConnection(a, b);
+                } else {
+                    planner.addConnection(TestGraphs.road(a, b, random));
+                }
+                continue;
+            }
+            lookups++;
+            List<TouristSpot> cached = best(cache, planner, a, b, computed);
+            List<TouristSpot> fresh = planner.findBestPath(a, b);
+            assertEquals(graph.pathDistance(fresh), graph.pathDistance(cached), 1e-9, "Step " + step);
+            assertEquals(fresh.isEmpty(), cached.isEmpty(), "Step " + step);
+        }
+        assertTrue(computed.get() < lookups, "Nothing was served from the cache");
+    }
+
+    // Hits, misses and evictions reach JMX through RoutingMetrics
+    @Test
+    void statsArePublishedAsMetrics() throws Exception {
+        RouteGraph graph = TestGraphs.graph(10, 10, 2);
+        RoutePlanner planner = new RoutePlanner(graph);
+        RouteCache cache = new RouteCache(planner, 2);
+        RoutingMetrics.register();
+        RoutingMetrics.INSTANCE.track(cache);
+
+        for (int end : new int[] {1, 1, 2, 3, 1}) {
+            cache.get(graph.spot(0), graph.spot(end), RouteCache.Mode.BEST, 1,
+                    () -> new RouteCache.Result(List.of(planner.findBestPath(graph.spot(0), graph.spot(end))), null));
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("travel.optimizer:type=RoutingMetrics");
+        assertEquals(1L, server.getAttribute(name, "RouteCacheHits"));
+        assertEquals(4L, server.getAttribute(name, "RouteCacheMisses"));
+        assertEquals(2L, server.getAttribute(name, "RouteCacheEvictions"));
+        assertEquals(2, server.getAttribute(name, "RouteCacheSize"));
+        assertEquals(0.2, (double) server.getAttribute(name, "RouteCacheHitRate"), 1e-9);
+    }
+
+    private static List<TouristSpot> best(RouteCache cache, RoutePlanner planner, TouristSpot start, TouristSpot end,
+                                          AtomicInteger computed) {
+        return cache.get(start, end, RouteCache.Mode.BEST, 1, () -> {
+            computed.incrementAndGet();
+            return new RouteCache.Result(List.of(planner.findBestPath(start, end)), null);
+        }).routes().get(0);
+    }
+}
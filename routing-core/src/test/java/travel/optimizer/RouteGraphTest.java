@@ -0,0 +1,127 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class RouteGraphTest {
+
+    @Test
+    void buildCollapsesDuplicateConnectionsToTheShortest() {
+        TouristSpot a = new TouristSpot("A", 30.0, 78.0);
+        TouristSpot b = new TouristSpot("B", 30.1, 78.1);
+        RouteGraph graph = RouteGraph.build(List.of(a, b),
+                List.of(new TouristConnection(a, b, 20), new TouristConnection(b, a, 15)));
+
+        assertEquals(2, graph.edgeCount());
+        assertEquals(15, graph.distance(a, b));
+        assertEquals(15, graph.distance(b, a));
+    }
+
+    // Every edit is checked against a graph built from scratch out of the same spots and connections, and the
+    // graph it was made from must still look as it did
+    @Test
+    void editsMatchAFullRebuild() {
+        Random random = new Random(3);
+        List<TouristSpot> initial = TestGraphs.spots(30, 3);
+        Map<String, TouristSpot> spots = new LinkedHashMap<>();
+        initial.forEach(spot -> spots.put(spot.getName(), spot));
+        Map<String, TouristConnection> connections = new LinkedHashMap<>();
+        for (TouristConnection connection : TestGraphs.connections(initial, 20, 3)) {
+            connections.merge(key(connection.getStart(), connection.getEnd()), connection,
+                    (kept, other) -> kept.getDistance() <= other.getDistance() ? kept : other);
+        }
+        RouteGraph graph = RouteGraph.build(spots.values(), connections.values());
+        int added = 0;
+
+        for (int step = 0; step < 400; step++) {
+            RouteGraph before = graph;
+            Map<String, Map<String, Double>> beforeAdjacency = adjacency(before);
+            List<TouristSpot> current = new ArrayList<>(spots.values());
+            TouristSpot a = current.get(random.nextInt(current.size()));
+            TouristSpot b = current.get(random.nextInt(current.size()));
+            switch (random.nextInt(5)) {
+                case 0, 1 -> {
+                    if (a != b) {
+                        TouristConnection road = TestGraphs.road(a, b, random);
+                        graph = graph.withConnection(a, b, road.getDistance());
+                        connections.put(key(a, b), road);
+                    }
+                }
+                case 2 -> {
+                    graph = graph.withoutConnection(a, b);
+                    connections.remove(key(a, b));
+                }
+                case 3 -> {
+                    TouristSpot spot = new TouristSpot("Added " + added++, 28 + 4 * random.nextDouble(),
+                            77 + 4 * random.nextDouble());
+                    graph = graph.withSpot(spot);
+                    spots.put(spot.getName(), spot);
+                }
+                default -> {
+                    if (spots.size() > 2) {
+                        graph = graph.withoutSpot(a);
+                        spots.remove(a.getName());
+                        connections.values().removeIf(c -> c.getStart().equals(a) || c.getEnd().equals(a));
+                    }
+                }
+            }
+            assertSameGraph(RouteGraph.build(spots.values(), connections.values()), graph);
+            assertEquals(beforeAdjacency, adjacency(before));
+        }
+    }
+
+    @Test
+    void removingAnUnknownConnectionOrSpotReturnsTheSameGraph() {
+        RouteGraph graph = TestGraphs.graph(5, 0, 1);
+        TouristSpot stranger = new TouristSpot("Stranger", 30, 79);
+
+        assertSame(graph, graph.withoutSpot(stranger));
+        assertSame(graph, graph.withoutConnection(graph.spot(0), stranger));
+        assertThrows(IllegalArgumentException.class, () -> graph.withConnection(graph.spot(0), stranger, 1));
+        assertThrows(IllegalArgumentException.class, () -> graph.withSpot(graph.spot(1)));
+    }
+
+    private static void assertSameGraph(RouteGraph expected, RouteGraph actual) {
+        assertEquals(expected.spotCount(), actual.spotCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int id = 0; id < expected.spotCount(); id++) {
+            assertEquals(expected.spot(id).getName(), actual.spot(id).getName());
+            assertEquals(id, actual.idOf(expected.spot(id)));
+        }
+        assertEquals(adjacency(expected), adjacency(actual));
+        for (int a = 0; a < expected.spotCount(); a++) {
+            for (int b = 0; b < expected.spotCount(); b++) {
+                assertEquals(expected.distance(a, b), actual.distance(a, b));
+            }
+        }
+        assertEquals(expected.minLatitude(), actual.minLatitude());
+        assertEquals(expected.maxLatitude(), actual.maxLatitude());
+        assertEquals(expected.minLongitude(), actual.minLongitude());
+        assertEquals(expected.maxLongitude(), actual.maxLongitude());
+    }
+
+    // Neighbours and arc weights by name, independent of the order arcs sit in a row
+    private static Map<String, Map<String, Double>> adjacency(RouteGraph graph) {
+        Map<String, Map<String, Double>> adjacency = new TreeMap<>();
+        for (int v = 0; v < graph.spotCount(); v++) {
+            Map<String, Double> row = new TreeMap<>();
+            for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                assertNull(row.put(graph.spot(graph.target(e)).getName(), graph.weight(e)));
+            }
+            adjacency.put(graph.spot(v).getName(), row);
+        }
+        return adjacency;
+    }
+
+    private static String key(TouristSpot a, TouristSpot b) {
+        return a.getName().compareTo(b.getName()) < 0 ? a.getName() + "|" + b.getName()
+                : b.getName() + "|" + a.getName();
+    }
+}
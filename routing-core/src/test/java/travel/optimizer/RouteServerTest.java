@@ -0,0 +1,168 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RouteServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private RoutePlanner planner;
+    private RouteServer server;
+
+    // A - B - Har Ki Pauri with a longer direct road from A, and Chopta on its own
+    @BeforeEach
+    void start() throws IOException {
+        TouristSpot a = new TouristSpot("A", 30.0, 78.0);
+        TouristSpot b = new TouristSpot("B", 30.1, 78.1);
+        TouristSpot pauri = new TouristSpot("Har Ki Pauri", 29.95, 78.17);
+        TouristSpot chopta = new TouristSpot("Chopta", 30.49, 79.22);
+        planner = new RoutePlanner(List.of(a, b, pauri, chopta), List.of(new TouristConnection(a, b, 10),
+                new TouristConnection(b, pauri, 10), new TouristConnection(a, pauri, 25)));
+        server = new RouteServer(planner, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void listsSpots() throws Exception {
+        HttpResponse<String> response = get("/spots");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(""));
+        assertEquals("[{\"name\":\"A\",\"latitude\":30.0,\"longitude\":78.0},"
+                + "{\"name\":\"B\",\"latitude\":30.1,\"longitude\":78.1},"
+                + "{\"name\":\"Har Ki Pauri\",\"latitude\":29.95,\"longitude\":78.17},"
+                + "{\"name\":\"Chopta\",\"latitude\":30.49,\"longitude\":79.22}]", response.body());
+    }
+
+    @Test
+    void answersTheBestRoute() throws Exception {
+        HttpResponse<String> response = get("/route?from=A&to=" + encode("Har Ki Pauri"));
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"from\":\"A\",\"to\":\"Har Ki Pauri\",\"distance\":20.0,"
+                + "\"route\":[\"A\",\"B\",\"Har Ki Pauri\"]}", response.body());
+    }
+
+    @Test
+    void answersPathsInOrderOfDistance() throws Exception {
+        HttpResponse<String> response = get("/paths?from=A&to=" + encode("Har Ki Pauri") + "&k=5");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"from\":\"A\",\"to\":\"Har Ki Pauri\",\"paths\":["
+                + "{\"distance\":20.0,\"route\":[\"A\",\"B\",\"Har Ki Pauri\"]},"
+                + "{\"distance\":25.0,\"route\":[\"A\",\"Har Ki Pauri\"]}]}", response.body());
+    }
+
+    @Test
+    void rejectsBadQueries() throws Exception {
+        assertEquals(404, get("/route?from=A&to=Nowhere").statusCode());
+        assertEquals(404, get("/route?from=A").statusCode());
+        assertEquals(404, get("/paths?from=Nowhere&to=A").statusCode());
+
+        HttpResponse<String> noRoute = get("/route?from=A&to=Chopta");
+        assertEquals(404, noRoute.statusCode());
+        assertEquals("{\"error\":\"No route found\"}", noRoute.body());
+
+        HttpResponse<String> badCount = get("/paths?from=A&to=B&k=many");
+        assertEquals(400, badCount.statusCode());
+        assertEquals("{\"error\":\"k must be a number\"}", badCount.body());
+    }
+
+    // Edits to the planner show up in the next request
+    @Test
+    void servesTheCurrentVersionOfTheMap() throws Exception {
+        TouristSpot chopta = planner.graph().spot("Chopta");
+        TouristSpot tungnath = new TouristSpot("Tungnath", 30.49, 79.21);
+        planner.addSpot(tungnath);
+        planner.addConnection(new TouristConnection(chopta, tungnath, 3.5));
+
+        assertTrue(get("/spots").body().endsWith(",{\"name\":\"Tungnath\",\"latitude\":30.49,\"longitude\":79.21}]"));
+        assertEquals("{\"from\":\"Chopta\",\"to\":\"Tungnath\",\"distance\":3.5,"
+                + "\"route\":[\"Chopta\",\"Tungnath\"]}", get("/route?from=Chopta&to=Tungnath").body());
+
+        planner.removeSpot(tungnath);
+        assertEquals(404, get("/route?from=Chopta&to=Tungnath").statusCode());
+        assertFalse(get("/spots").body().contains("Tungnath"));
+    }
+
+    // Identical queries in flight together share one computation but must each get the full answer
+    @Test
+    void concurrentIdenticalQueriesGetTheSameAnswer() throws Exception {
+        HttpResponse<String> expected = get("/route?from=B&to=A");
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            responses.add(client.sendAsync(request("/route?from=B&to=A"), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+            assertEquals(expected.body(), response.get().body());
+        }
+    }
+
+    // A computation that dies with an Error must still release the queries waiting on it
+    @Test
+    void waitersAreReleasedWhenTheSharedComputationFails() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        Runnable query = () -> {
+            try {
+                server.coalesce("route|A|B", () -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new StackOverflowError();
+                });
+            } catch (IOException e) {
+                failures.add(e.getCause());
+            }
+        };
+        Thread owner = Thread.ofPlatform().start(query);
+        while (owner.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        Thread waiter = Thread.ofPlatform().start(query);
+        while (waiter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        owner.join(10_000);
+        waiter.join(10_000);
+        assertFalse(waiter.isAlive());
+        assertEquals(2, failures.size());
+        assertTrue(failures.stream().allMatch(StackOverflowError.class::isInstance));
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(request(path), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path)).build();
+    }
+
+    private static String encode(String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,106 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ShortestPathEngineTest {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void aStarMatchesDijkstra() {
+        Random random = new Random(1);
+        for (long seed = 1; seed <= 20; seed++) {
+            RouteGraph graph = TestGraphs.graph(60, 60, seed);
+            assertSameDistances(graph, new ShortestPathEngine(graph), random);
+        }
+    }
+
+    // Roads recorded shorter than the straight line (tunnels, bad data) shrink the heuristic instead of
+    // letting A* settle a spot too early
+    @Test
+    void aStarStaysExactWithRoadsShorterThanTheStraightLine() {
+        Random random = new Random(2);
+        for (long seed = 1; seed <= 10; seed++) {
+            List<TouristSpot> spots = TestGraphs.spots(50, seed);
+            List<TouristConnection> connections = new ArrayList<>(TestGraphs.connections(spots, 40, seed));
+            for (int i = 0; i < 5; i++) {
+                TouristConnection road = connections.get(random.nextInt(connections.size()));
+                connections.add(new TouristConnection(road.getStart(), road.getEnd(), road.getDistance() / 4));
+            }
+            RouteGraph graph = RouteGraph.build(spots, connections);
+            assertSameDistances(graph, new ShortestPathEngine(graph), random);
+        }
+    }
+
+    // Edits hand the planner an updated engine rather than a fresh one, which must stay just as exact
+    @Test
+    void updatedEnginesStayExact() {
+        Random random = new Random(3);
+        RoutePlanner planner = new RoutePlanner(TestGraphs.graph(40, 30, 4));
+        for (int step = 0; step < 30; step++) {
+            RouteGraph graph = planner.graph();
+            TouristSpot a = graph.spot(random.nextInt(graph.spotCount()));
+            TouristSpot b = graph.spot(random.nextInt(graph.spotCount()));
+            if (a.equals(b)) {
+                continue;
+            }
+            double distance = graph.distance(a, b);
+            GraphChange change = random.nextBoolean()
+                    ? planner.addConnection(new TouristConnection(a, b,
+                            Double.isNaN(distance) ? random.nextDouble() * 20 : distance / 3))
+                    : planner.removeConnection(a, b);
+            if (change != null) {
+                assertSameDistances(change.graph(), change.engine(), random);
+            }
+        }
+    }
+
+    @Test
+    void unknownAndUnreachableSpotsHaveNoRoute() {
+        TouristSpot a = new TouristSpot("A", 30.0, 78.0);
+        TouristSpot b = new TouristSpot("B", 30.1, 78.1);
+        TouristSpot island = new TouristSpot("Island", 30.2, 78.2);
+        RouteGraph graph = RouteGraph.build(List.of(a, b, island), List.of(new TouristConnection(a, b, 20)));
+        ShortestPathEngine engine = new ShortestPathEngine(graph);
+
+        assertEquals(List.of(), engine.aStar(a, island));
+        assertEquals(List.of(), engine.dijkstra(a, island));
+        assertNull(engine.shortestPath(0, 2, true));
+        assertEquals(List.of(), engine.aStar(a, new TouristSpot("Nowhere", 30, 78)));
+        assertEquals(List.of(a), engine.aStar(a, a));
+        assertEquals(List.of(a, b), engine.aStar(a, b));
+        assertNull(engine.shortestPath(0, 1, true, new boolean[] {false, true, false}, null));
+    }
+
+    // Random pairs: A* and Dijkstra agree with the full shortest path tree and return walkable routes
+    private static void assertSameDistances(RouteGraph graph, ShortestPathEngine engine, Random random) {
+        int n = graph.spotCount();
+        double[] distances = new double[n];
+        int[] previous = new int[n];
+        for (int query = 0; query < 20; query++) {
+            int source = random.nextInt(n);
+            int target = random.nextInt(n);
+            engine.shortestPathTree(source, distances, previous);
+            int[] aStar = engine.shortestPath(source, target, true);
+            int[] dijkstra = engine.shortestPath(source, target, false);
+            if (Double.isInfinite(distances[target])) {
+                assertNull(aStar);
+                assertNull(dijkstra);
+                continue;
+            }
+            for (int[] path : new int[][] {aStar, dijkstra}) {
+                assertEquals(source, path[0]);
+                assertEquals(target, path[path.length - 1]);
+                assertEquals(distances[target], graph.pathDistance(path, path.length), EPSILON,
+                        source + " -> " + target);
+                for (int i = 0; i + 1 < path.length; i++) {
+                    assertFalse(Double.isNaN(graph.distance(path[i], path[i + 1])));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package travel.optimizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotDataSourceTest {
+    private static final Duration MAX_AGE = Duration.ofHours(12);
+
+    @TempDir
+    Path directory;
+    private Path snapshotFile;
+    private Path spotsFile;
+    private Path connectionsFile;
+
+    @BeforeEach
+    void writeExport() throws IOException {
+        snapshotFile = directory.resolve("graph.snapshot");
+        spotsFile = directory.resolve("loc.csv");
+        connectionsFile = directory.resolve("con.csv");
+        Files.writeString(spotsFile, "Name,Latitude,Longitude\nDehradun,30.3165,78.0322\n"
+                + "Rishikesh,30.0868,78.2676\n", StandardCharsets.UTF_8);
+        Files.writeString(connectionsFile, "Source,Target,Distance\nDehradun,Rishikesh,43.5\n",
+                StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void anUnchangedExportIsServedFromTheSnapshot() throws Exception {
+        CsvDataSource csv = new CsvDataSource(spotsFile, connectionsFile);
+        assertEquals(2, new SnapshotDataSource(snapshotFile, csv, MAX_AGE).load().getSpots().size());
+
+        SnapshotDataSource source = new SnapshotDataSource(snapshotFile, csv, MAX_AGE);
+        assertEquals(2, source.load().getSpots().size());
+        assertEquals("snapshot " + snapshotFile, source.toString());
+    }
+
+    // With the database down the snapshot is stamped from the CSV fallback, so an edit to the export is picked
+    // up on the next start even though the database itself reports no stamp
+    @Test
+    void editsToTheFallbackExportAreSeenWhileTheDatabaseIsDown() throws Exception {
+        assertEquals(2, offline().load().getSpots().size());
+
+        addKedarnath();
+        SnapshotDataSource source = offline();
+        Map<String, TouristSpot> spots = source.load().getSpots();
+        assertEquals(3, spots.size());
+        assertTrue(spots.containsKey("Kedarnath"));
+        assertEquals(spotsFile + " + " + connectionsFile, source.toString());
+        assertEquals(3, GraphSnapshot.read(snapshotFile).graph().spotCount());
+    }
+
+    // A database cannot be stamped, so its snapshot is trusted until it is older than maxAge
+    @Test
+    void anUnstampedOriginIsReloadedOnlyOnceTheSnapshotIsOld() throws Exception {
+        TravelDataSource database = new Database(new CsvDataSource(spotsFile, connectionsFile));
+        new SnapshotDataSource(snapshotFile, database, MAX_AGE).load();
+        addKedarnath();
+
+        SnapshotDataSource young = new SnapshotDataSource(snapshotFile, database, MAX_AGE);
+        assertEquals(2, young.load().getSpots().size());
+        assertEquals("snapshot " + snapshotFile, young.toString());
+        assertEquals(3, new SnapshotDataSource(snapshotFile, database, Duration.ZERO).load().getSpots().size());
+    }
+
+    // A snapshot written from the CSV fallback says nothing about the database once it is back
+    @Test
+    void aFallbackSnapshotIsNotServedForTheDatabase() throws Exception {
+        offline().load();
+        addKedarnath();
+
+        TravelDataSource database = new Database(new CsvDataSource(spotsFile, connectionsFile));
+        SnapshotDataSource source = new SnapshotDataSource(snapshotFile, database, MAX_AGE);
+        assertEquals(3, source.load().getSpots().size());
+        assertEquals("database", source.toString());
+    }
+
+    private SnapshotDataSource offline() {
+        return new SnapshotDataSource(snapshotFile, new FallbackDataSource(new Database(null),
+                new CsvDataSource(spotsFile, connectionsFile)), MAX_AGE);
+    }
+
+    private void addKedarnath() throws IOException {
+        FileTime before = Files.getLastModifiedTime(spotsFile);
+        Files.writeString(spotsFile, Files.readString(spotsFile) + "Kedarnath,30.7352,79.0669\n",
+                StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(spotsFile, FileTime.fromMillis(before.toMillis() + 1000));
+    }
+
+    // Stands in for the database: no stamp, and down when it has nothing to serve
+    private static class Database implements TravelDataSource {
+        private final TravelDataSource rows;
+
+        Database(TravelDataSource rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Map<String, TouristSpot> loadSpots() throws IOException, SQLException {
+            if (rows == null) {
+                throw new SQLException("Connection refused");
+            }
+            return rows.loadSpots();
+        }
+
+        @Override
+        public List<TouristConnection> loadConnections(Map<String, TouristSpot> spots)
+                throws IOException, SQLException {
+            return rows.loadConnections(spots);
+        }
+
+        @Override
+        public String toString() {
+            return "database";
+        }
+    }
+}
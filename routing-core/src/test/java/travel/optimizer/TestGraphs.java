@@ -0,0 +1,48 @@
+package travel.optimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Small random road networks for the tests. A random spanning tree keeps every spot reachable, and road
+// distances are the straight line stretched by up to 50%, as on the real map.
+final class TestGraphs {
+    private TestGraphs() {
+    }
+
+    static List<TouristSpot> spots(int count, long seed) {
+        Random random = new Random(seed);
+        List<TouristSpot> spots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            spots.add(new TouristSpot("Spot " + i, 29 + 2 * random.nextDouble(), 78 + 2 * random.nextDouble()));
+        }
+        return spots;
+    }
+
+    static List<TouristConnection> connections(List<TouristSpot> spots, int extraConnections, long seed) {
+        Random random = new Random(seed);
+        List<TouristConnection> connections = new ArrayList<>();
+        for (int i = 1; i < spots.size(); i++) {
+            connections.add(road(spots.get(random.nextInt(i)), spots.get(i), random));
+        }
+        for (int i = 0; i < extraConnections && spots.size() > 1; i++) {
+            TouristSpot a = spots.get(random.nextInt(spots.size()));
+            TouristSpot b = spots.get(random.nextInt(spots.size()));
+            if (a != b) {
+                connections.add(road(a, b, random));
+            }
+        }
+        return connections;
+    }
+
+    static RouteGraph graph(int spotCount, int extraConnections, long seed) {
+        List<TouristSpot> spots = spots(spotCount, seed);
+        return RouteGraph.build(spots, connections(spots, extraConnections, seed));
+    }
+
+    static TouristConnection road(TouristSpot a, TouristSpot b, Random random) {
+        double straight = ShortestPathEngine.haversine(a.getLatitude(), a.getLongitude(),
+                b.getLatitude(), b.getLongitude());
+        return new TouristConnection(a, b, Math.round(straight * (1 + random.nextDouble() / 2) * 100) / 100.0);
+    }
+}